@@ -0,0 +1,81 @@
+package org.polythec.projecthubbe.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for the in-process Caffeine caches.
+ * Every cache is registered by name so it gets its own size and TTL, and records
+ * statistics so that hits, misses and evictions are exported as cache.* metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+    public static final String USERS_BY_ID = "usersById";
+    public static final String CURRENT_USER_DTOS = "currentUserDtos";
+    public static final String USER_SUMMARIES = "userSummaries";
+    public static final String PROJECT_SUMMARIES = "projectSummaries";
+    public static final String PROJECT_MEMBERSHIPS = "projectMemberships";
+
+    @Value("${app.cache.users.max-size:10000}")
+    private long usersMaxSize;
+
+    @Value("${app.cache.users.ttl:PT5M}")
+    private Duration usersTtl;
+
+    @Value("${app.cache.user-summaries.ttl:PT30S}")
+    private Duration userSummariesTtl;
+
+    @Value("${app.cache.project-summaries.max-size:1000}")
+    private long projectSummariesMaxSize;
+
+    @Value("${app.cache.project-summaries.ttl:PT5M}")
+    private Duration projectSummariesTtl;
+
+    @Value("${app.cache.project-memberships.max-size:50000}")
+    private long projectMembershipsMaxSize;
+
+    @Value("${app.cache.project-memberships.ttl:PT30M}")
+    private Duration projectMembershipsTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(USERS_BY_EMAIL, userCache());
+        cacheManager.registerCustomCache(USERS_BY_ID, userCache());
+        cacheManager.registerCustomCache(CURRENT_USER_DTOS, userCache());
+        cacheManager.registerCustomCache(USER_SUMMARIES, Caffeine.newBuilder()
+                .maximumSize(usersMaxSize)
+                .expireAfterWrite(userSummariesTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(PROJECT_SUMMARIES, Caffeine.newBuilder()
+                .maximumSize(projectSummariesMaxSize)
+                .expireAfterWrite(projectSummariesTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(PROJECT_MEMBERSHIPS, Caffeine.newBuilder()
+                .maximumSize(projectMembershipsMaxSize)
+                .expireAfterWrite(projectMembershipsTtl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> userCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(usersMaxSize)
+                .expireAfterWrite(usersTtl)
+                .recordStats()
+                .build();
+    }
+}
@@ -1,9 +1,13 @@
 package org.polythec.projecthubbe.config;
 
+import org.polythec.projecthubbe.controller.Cursors;
 import org.polythec.projecthubbe.security.JwtAuthenticationFilter;
 import org.polythec.projecthubbe.security.JwtUtil;
+import org.polythec.projecthubbe.security.TokenRevocationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -28,10 +32,13 @@ public class SecurityConfig {
 
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
 
-    public SecurityConfig(UserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    public SecurityConfig(UserDetailsService userDetailsService, JwtUtil jwtUtil,
+                          TokenRevocationService tokenRevocationService) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Bean
@@ -41,10 +48,12 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**", "/register", "/login", "/api/projects/**","/ws/**", "/ws/info/**", "/ws/info", "/ws/info/**","/api/auth/me","/api/auth/me","/api/projects/**").permitAll()
+                        // Content-addressed blobs are loaded by <img> tags without a token
+                        .requestMatchers(HttpMethod.GET, "/api/blobs/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(
-                        new JwtAuthenticationFilter(jwtUtil, userDetailsService),
+                        new JwtAuthenticationFilter(jwtUtil, userDetailsService, tokenRevocationService),
                         UsernamePasswordAuthenticationFilter.class
                 )
                 .sessionManagement(session -> session
@@ -61,6 +70,9 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
         configuration.setAllowCredentials(true);
+        // Controller-level @CrossOrigin is skipped once this filter has answered, so exposed headers live here
+        configuration.setExposedHeaders(List.of(HttpHeaders.ETAG, HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER,
+                Cursors.NEXT_CURSOR_HEADER));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -1,6 +1,9 @@
 package org.polythec.projecthubbe.config;
 
+import io.jsonwebtoken.Claims;
+import org.polythec.projecthubbe.security.AuthenticatedUser;
 import org.polythec.projecthubbe.security.JwtUtil;
+import org.polythec.projecthubbe.security.TokenRevocationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.Message;
@@ -37,9 +40,11 @@ import java.util.Map;
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
 
-    public WebSocketConfig(JwtUtil jwtUtil) {
+    public WebSocketConfig(JwtUtil jwtUtil, TokenRevocationService tokenRevocationService) {
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -133,8 +138,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
                         // Only validate and set authentication if token is present
                         if (StringUtils.hasText(token)) {
-                            if (jwtUtil.isTokenValid(token)) {
-                                Authentication authentication = jwtUtil.getAuthentication(token);
+                            // Verified once here; handlers read the principal from the session afterwards
+                            Claims claims = jwtUtil.parseVerifiedClaims(token);
+                            Authentication authentication = jwtUtil.getAuthentication(claims);
+                            if (!tokenRevocationService.isRevoked(claims)
+                                    && ((AuthenticatedUser) authentication.getPrincipal()).isEnabled()) {
                                 SecurityContextHolder.getContext().setAuthentication(authentication);
                                 accessor.setUser(authentication);
                                 System.out.println("WebSocket authentication successful");
@@ -1,26 +1,36 @@
 package org.polythec.projecthubbe.controller;
 
 import jakarta.validation.Valid;
+import org.polythec.projecthubbe.dto.UploadJobDTO;
 import org.polythec.projecthubbe.dto.UserDTO;
 import org.polythec.projecthubbe.repository.CloudinaryUploadResult;
+import org.polythec.projecthubbe.security.CurrentUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.polythec.projecthubbe.security.JwtUtil;
+import org.polythec.projecthubbe.security.TokenRevocationService;
 import org.polythec.projecthubbe.exception.*;
 import org.polythec.projecthubbe.entity.User;
 import org.polythec.projecthubbe.service.CloudinaryService;
+import org.polythec.projecthubbe.service.ImageDerivativeService;
+import org.polythec.projecthubbe.service.UploadJobService;
 import org.polythec.projecthubbe.service.UserService;
 import org.polythec.projecthubbe.service.impl.UserServiceImpl;
+import org.polythec.projecthubbe.storage.BlobStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.security.Principal;
+import java.io.IOException;
 import java.util.Map;
 
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
@@ -32,15 +42,18 @@ public class AuthController {
     private final UserService userService;
     private final JwtUtil jwtUtil;
     private final UserServiceImpl userServiceImpl;
+    private final TokenRevocationService tokenRevocationService;
 
 
     public AuthController(AuthenticationManager authenticationManager,
                           UserService userService,
-                          JwtUtil jwtUtil, UserServiceImpl userServiceImpl) {
+                          JwtUtil jwtUtil, UserServiceImpl userServiceImpl,
+                          TokenRevocationService tokenRevocationService) {
         this.authenticationManager = authenticationManager;
         this.userService = userService;
         this.jwtUtil = jwtUtil;
         this.userServiceImpl = userServiceImpl;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/register")
@@ -74,6 +87,24 @@ public class AuthController {
         return ResponseEntity.ok(new AuthResponse(token));
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing bearer token"));
+        }
+        try {
+            Claims claims = jwtUtil.parseVerifiedClaims(authorizationHeader.substring(7).trim());
+            if (claims.getId() == null) {
+                // Tokens issued before ids were added can only expire on their own
+                return ResponseEntity.badRequest().body(Map.of("error", "Token cannot be revoked"));
+            }
+            tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration());
+            return ResponseEntity.ok(Map.of("message", "Logged out"));
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid token"));
+        }
+    }
+
     @PreAuthorize("isAuthenticated()")
     @GetMapping("/me")
     public ResponseEntity<UserDTO> getCurrentUser() {
@@ -86,42 +117,95 @@ public class AuthController {
     }
     @Autowired
     private CloudinaryService cloudinaryService;
+    @Autowired
+    private UploadJobService uploadJobService;
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+    @Autowired
+    private BlobStore blobStore;
 
     @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true", methods = {RequestMethod.PUT})
     @PutMapping("/update-profile-image")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> updateProfileImage(
             @RequestParam("image") MultipartFile image,
-            Principal principal
+            @CurrentUser User currentUser
     ) {
         try {
-            CloudinaryUploadResult uploadResult = cloudinaryService.uploadFile(image);
-            String publicId = uploadResult.getPublicId();
-            String secureUrl = uploadResult.getSecureUrl();
-
-            // Update BOTH fields in the database
-            userService.updateProfilePictureAndPublicId(
-                    principal.getName(),
-                    secureUrl,
-                    publicId
-            );
+            // The upload itself runs in the background; progress is polled or pushed to /topic/uploads/{userId}
+            UploadJobDTO job = uploadJobService.submitProfilePicture(currentUser, image);
+            return ResponseEntity.accepted()
+                    .header(HttpHeaders.LOCATION, "/api/auth/uploads/" + job.getId())
+                    .body(job);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Image upload failed: " + e.getMessage());
+        }
+    }
 
-            return ResponseEntity.ok().body(Map.of(
+    @GetMapping("/uploads/{jobId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<UploadJobDTO> getUploadJob(@PathVariable String jobId, @CurrentUser User currentUser) {
+        UploadJobDTO job = uploadJobService.getJob(jobId);
+        if (job == null || !job.getUserId().equals(currentUser.getId())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+    /**
+     * First step of a direct upload: the client sends the image straight to storage with this ticket.
+     * Only available when the storage backend supports it; otherwise clients use {@code /update-profile-image}.
+     */
+    @PostMapping("/profile-image/upload-ticket")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> createProfileImageUploadTicket(@CurrentUser User currentUser) {
+        if (!blobStore.supportsDirectUploads()) {
+            return directUploadsUnavailable();
+        }
+        return ResponseEntity.ok(cloudinaryService.createAvatarUploadTicket(currentUser.getId()));
+    }
+
+    /**
+     * Second step of a direct upload: records the image once storage's signed response checks out.
+     */
+    @PostMapping("/profile-image/confirm")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> confirmProfileImageUpload(@RequestBody UploadConfirmation confirmation,
+                                                       @CurrentUser User currentUser) {
+        if (!blobStore.supportsDirectUploads()) {
+            return directUploadsUnavailable();
+        }
+        if (confirmation.getVersion() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing version"));
+        }
+        try {
+            CloudinaryUploadResult result = cloudinaryService.confirmAvatarUpload(
+                    currentUser.getId(),
+                    confirmation.getPublicId(),
+                    confirmation.getVersion(),
+                    confirmation.getSignature()
+            );
+            userService.updateProfilePictureAndPublicId(currentUser.getEmail(), result.getSecureUrl(), result.getPublicId());
+            imageDerivativeService.profilePictureStored(currentUser.getEmail(), result.getPublicId());
+            return ResponseEntity.ok(Map.of(
                     "message", "Profile picture updated",
-                    "url", secureUrl,
-                    "publicId", publicId
+                    "url", result.getSecureUrl(),
+                    "publicId", result.getPublicId()
             ));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Image upload failed: " + e.getMessage());
+        } catch (InvalidUploadException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
         }
     }
+
+    private static ResponseEntity<?> directUploadsUnavailable() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Direct uploads are not available with the configured storage backend"));
+    }
+
     @PreAuthorize("isAuthenticated()") // Add this annotation
     @PutMapping("/update")
-    public ResponseEntity<?> updateUser(@RequestBody User updatedUser, Principal principal) {
+    public ResponseEntity<?> updateUser(@RequestBody User updatedUser, @CurrentUser User currentUser) {
         try {
-            // Get currently authenticated user's ID using their email from the JWT
-            User currentUser = userServiceImpl.getCurrentlyAuthenticatedUser();
             User updated = userService.updateUser(currentUser.getId(), updatedUser);
 
             return ResponseEntity.ok(updated);
@@ -133,6 +217,23 @@ public class AuthController {
 
 
 
+    @ExceptionHandler(UnsupportedImageTypeException.class)
+    public ResponseEntity<?> handleUnsupportedImageType(UnsupportedImageTypeException e) {
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(Map.of("error", e.getMessage()));
+    }
+
+    /**
+     * For an unknown email the timing-equalizing hash runs inside the user lookup, so a busy
+     * encoder reaches us wrapped by the authentication provider.
+     */
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<?> handleInternalAuthenticationFailure(InternalAuthenticationServiceException e) {
+        if (e.getCause() instanceof ServiceBusyException busy) {
+            return ServiceBusyAdvice.serviceUnavailable(busy);
+        }
+        throw e;
+    }
+
     // DTO Classes
     private static class AuthRequest {
         private String email;
@@ -148,6 +249,24 @@ public class AuthController {
         }
     }
 
+    private static class UploadConfirmation {
+        private String publicId;
+        private Long version;
+        private String signature;
+
+        public String getPublicId() {
+            return publicId;
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+
+        public String getSignature() {
+            return signature;
+        }
+    }
+
     private static class AuthResponse {
         private final String token;
         public AuthResponse(String token) { this.token = token; }
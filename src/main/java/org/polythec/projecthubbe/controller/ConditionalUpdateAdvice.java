@@ -0,0 +1,36 @@
+package org.polythec.projecthubbe.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.polythec.projecthubbe.exception.PreconditionFailedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * Stale updates of versioned entities. Clients send the {@code ETag} of the copy being edited in
+ * {@code If-Match} (see {@link ETags}) and get 412 instead of overwriting someone else's changes.
+ * Without it, only a save racing the update is refused, with 409.
+ */
+@RestControllerAdvice(assignableTypes = {ProjetController.class, TaskController.class})
+public class ConditionalUpdateAdvice {
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<?> handlePreconditionFailed(PreconditionFailedException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleConcurrentUpdate(ObjectOptimisticLockingFailureException e, HttpServletRequest request) {
+        HttpStatus status = ETags.isConditional(request.getHeader(HttpHeaders.IF_MATCH))
+                ? HttpStatus.PRECONDITION_FAILED
+                : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status)
+                .body(Map.of("error", "Modified by someone else, reload and retry"));
+    }
+}
@@ -0,0 +1,55 @@
+package org.polythec.projecthubbe.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursors. Listings return the next cursor in the
+ * {@value #NEXT_CURSOR_HEADER} header, which is absent on the last page.
+ * The header is exposed to browsers by {@code SecurityConfig}'s CORS configuration.
+ */
+public final class Cursors {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private Cursors() {
+    }
+
+    static String encode(long position) {
+        return encode(Long.toString(position));
+    }
+
+    static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the decoded position, or {@code null} for a missing or malformed cursor.
+     */
+    static String decodeString(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the decoded position, or 0 (the start) for a missing or malformed cursor.
+     */
+    static long decode(String cursor) {
+        String decoded = decodeString(cursor);
+        if (decoded == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(decoded));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
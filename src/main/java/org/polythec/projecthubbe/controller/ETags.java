@@ -0,0 +1,48 @@
+package org.polythec.projecthubbe.controller;
+
+import org.polythec.projecthubbe.exception.PreconditionFailedException;
+
+/**
+ * Entity tags built from JPA {@code @Version} columns. Reads return the tag in {@code ETag};
+ * updates may send it back in {@code If-Match}; {@link ConditionalUpdateAdvice} maps stale updates to 412 or 409.
+ * If-Match uses the strong comparison, so weak tags never match (RFC 9110, section 13.1.1).
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Whether the header names a specific version; {@code *} only asks for the entity to exist.
+     */
+    static boolean isConditional(String ifMatch) {
+        return ifMatch != null && !ifMatch.isBlank() && !ifMatch.trim().equals("*");
+    }
+
+    /**
+     * Returns the version the client expects, or {@code null} when the update is unconditional.
+     *
+     * @throws PreconditionFailedException if the header cannot match any version
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (!isConditional(ifMatch)) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new PreconditionFailedException("Weak entity tags cannot be used with If-Match");
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("Malformed If-Match header");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current version");
+        }
+    }
+}
@@ -1,25 +1,30 @@
 package org.polythec.projecthubbe.controller;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.EntityNotFoundException;
+import org.polythec.projecthubbe.dto.MemberAdditionDTO;
+import org.polythec.projecthubbe.dto.ProjectDeletionJobDTO;
 import org.polythec.projecthubbe.dto.ProjectMemberDTO;
+import org.polythec.projecthubbe.dto.ProjectSearchHitDTO;
 import org.polythec.projecthubbe.dto.ProjetDTO;
 import org.polythec.projecthubbe.dto.UserDTO;
 import lombok.RequiredArgsConstructor;
-import org.polythec.projecthubbe.entity.ProjectMember;
 import org.polythec.projecthubbe.entity.Projet;
 import org.polythec.projecthubbe.entity.User;
+import org.polythec.projecthubbe.security.CurrentUser;
+import org.polythec.projecthubbe.service.ProjectDeletionService;
+import org.polythec.projecthubbe.service.ProjectSummaryService;
 import org.polythec.projecthubbe.service.ProjetService;
 import org.polythec.projecthubbe.service.UserService;
-import org.polythec.projecthubbe.service.impl.UserServiceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/projects")
@@ -27,11 +32,11 @@ import java.util.stream.Collectors;
 public class ProjetController {
 
     private final ProjetService projetService;
-    private final UserServiceImpl userServiceImpl;
+    private final ProjectSummaryService projectSummaryService;
+    private final ProjectDeletionService projectDeletionService;
 
     @PostMapping("/create")
-    public ResponseEntity<Projet> createProject(@RequestBody Projet projet) {
-        User loggedInUser = userServiceImpl.getCurrentlyAuthenticatedUser(); // ✅ correct call
+    public ResponseEntity<Projet> createProject(@RequestBody Projet projet, @CurrentUser User loggedInUser) {
         projet.setOwner(loggedInUser);
         return ResponseEntity.ok(projetService.createProject(projet));
     }
@@ -39,17 +44,33 @@ public class ProjetController {
     @PutMapping("/{id}")
     public ResponseEntity<Projet> updateProject(
             @PathVariable Long id,
-            @RequestBody Projet projetDetails
+            @RequestBody Projet projetDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        Projet updatedProjet = projetService.updateProject(id, projetDetails);
-        return ResponseEntity.ok(updatedProjet);
+        Projet updatedProjet = projetService.updateProject(id, projetDetails, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updatedProjet.getVersion())).body(updatedProjet);
     }
 
 
-    @JsonIgnore
+    private static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Keyset-paginated project listing, paginated with {@link Cursors}.
+     */
     @GetMapping("/allprojects")
-    public ResponseEntity<List<Projet>> getAllProjects() {
-        return ResponseEntity.ok(projetService.getAllProjects());
+    public ResponseEntity<List<ProjetDTO>> getAllProjects(@RequestParam(defaultValue = "50") int limit,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) String ownerId,
+                                                          @RequestParam(required = false) String memberId) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // One extra row tells whether there is a next page
+        List<ProjetDTO> projects = projetService.getProjectsPage(Cursors.decode(cursor), pageSize + 1, ownerId, memberId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (projects.size() > pageSize) {
+            projects = projects.subList(0, pageSize);
+            response.header(Cursors.NEXT_CURSOR_HEADER, Cursors.encode(projects.get(pageSize - 1).getIdprojet()));
+        }
+        return response.body(projects);
     }
 
     @GetMapping("/owner/{userId}")
@@ -67,6 +88,30 @@ public class ProjetController {
         return ResponseEntity.ok("User added to project with role: " + role);
     }
 
+    private static final int MAX_MEMBER_BATCH = 500;
+
+    /**
+     * Adds many members in one call; existing members and unknown user ids are skipped and reported.
+     * Only the project owner and its admins may do this.
+     */
+    @PostMapping(value = "/{projectId}/members/batch", produces = "application/json")
+    public ResponseEntity<?> addUsersToProject(@PathVariable Long projectId,
+                                               @RequestBody List<MemberAdditionDTO> additions,
+                                               @CurrentUser User currentUser) {
+        if (additions.size() > MAX_MEMBER_BATCH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_MEMBER_BATCH + " members per request"));
+        }
+        try {
+            return ResponseEntity.ok(projetService.addUsersToProject(projectId, additions, currentUser.getId()));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/{projectId}/add-member/{userId}")
     public ResponseEntity<Projet> addMemberToProject(
             @PathVariable Long projectId,
@@ -75,48 +120,75 @@ public class ProjetController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProject(@PathVariable Long id) {
-        User loggedInUser = userServiceImpl.getCurrentlyAuthenticatedUser();
-        projetService.deleteProjectWithRelatedData(id, loggedInUser.getId());
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<?> deleteProject(@PathVariable Long id, @CurrentUser User loggedInUser) {
+        ProjectDeletionJobDTO job = projetService.deleteProjectWithRelatedData(id, loggedInUser.getId());
+        if (job == null) {
+            return ResponseEntity.noContent().build();
+        }
+        // Very large projects are deleted in the background; progress is polled or pushed to /topic/project-deletions/{userId}
+        return ResponseEntity.accepted()
+                .header(HttpHeaders.LOCATION, "/api/projects/deletions/" + job.getId())
+                .body(job);
+    }
+
+    @GetMapping("/deletions/{jobId}")
+    public ResponseEntity<ProjectDeletionJobDTO> getDeletionJob(@PathVariable String jobId, @CurrentUser User loggedInUser) {
+        ProjectDeletionJobDTO job = projectDeletionService.getJob(jobId);
+        if (job == null || !job.getUserId().equals(loggedInUser.getId())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    private static final int MAX_QUICK_SEARCH_LIMIT = 20;
+
+    /**
+     * Quick switcher over the caller's projects; tolerates a typo or two.
+     */
+    @GetMapping(value = "/quick-search", produces = "application/json")
+    public ResponseEntity<List<ProjectSearchHitDTO>> quickSearch(@RequestParam String q,
+                                                                 @RequestParam(defaultValue = "10") int limit,
+                                                                 @CurrentUser User currentUser) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_QUICK_SEARCH_LIMIT));
+        return ResponseEntity.ok(projetService.quickSearch(currentUser.getId(), q, pageSize));
+    }
+
+    @GetMapping(value = "/{projectId}/summary", produces = "application/json")
+    public ResponseEntity<?> getProjectSummary(@PathVariable Long projectId) {
+        try {
+            return ResponseEntity.ok(projectSummaryService.getSummary(projectId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
     }
 
     @GetMapping(value = "/{projectId}/members", produces = "application/json")
     public List<ProjectMemberDTO> getMembers(@PathVariable Long projectId) {
-        List<ProjectMember> members = projetService.getMembersByProjectId(projectId);
-        return members.stream().map(member -> {
-            ProjectMemberDTO dto = new ProjectMemberDTO();
-            dto.setId(member.getUser().getId());
-            dto.setEmail(member.getUser().getEmail());
-            dto.setFirstName(member.getUser().getFirstName());
-            dto.setLastName(member.getUser().getLastName());
-            dto.setProfilePicture(member.getUser().getProfilePicture());
-            dto.setRole(member.getRole());
-            return dto;
-        }).collect(Collectors.toList());
+        return projetService.getMembersByProjectId(projectId);
     }
     @DeleteMapping(value = "/{projectId}/members/{userId}", produces = "application/json")
-    public ResponseEntity<String> deleteMember(@PathVariable Long projectId, @PathVariable String userId) {
+    public ResponseEntity<?> deleteMember(@PathVariable Long projectId, @PathVariable String userId) {
         try {
-            projetService.deleteMemberFromProject(projectId, userId);
-            return ResponseEntity.ok("Member with userId " + userId + " removed from project " + projectId);
+            int removedAssignments = projetService.deleteMemberFromProject(projectId, userId);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Member with userId " + userId + " removed from project " + projectId,
+                    "removedAssignments", removedAssignments
+            ));
         } catch (EntityNotFoundException e) {
-            return ResponseEntity.status(404).body(e.getMessage());
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
         }
     }
     @GetMapping("/{id}")
-    public ResponseEntity<Optional<Projet>> getProjectById(@PathVariable Long id) {
+    public ResponseEntity<Projet> getProjectById(@PathVariable Long id) {
         Optional<Projet> project = projetService.getProjectById(id);
-        if (project == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(project);
+        return project
+                .map(p -> ResponseEntity.ok().eTag(ETags.of(p.getVersion())).body(p))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
     @GetMapping("/member/my-projects")
-    public ResponseEntity<List<ProjetDTO>> getProjectsByCurrentMember() {
-        // Get the authenticated user's ID directly
-        User currentUser = userServiceImpl.getCurrentlyAuthenticatedUser();
+    public ResponseEntity<List<ProjetDTO>> getProjectsByCurrentMember(@CurrentUser User currentUser) {
         List<ProjetDTO> projects = projetService.getProjectsByMember(currentUser.getId());
         return ResponseEntity.ok(projects);
     }
-}
\ No newline at end of file
+
+}
@@ -0,0 +1,26 @@
+package org.polythec.projecthubbe.controller;
+
+import org.polythec.projecthubbe.exception.ServiceBusyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns {@link ServiceBusyException} into 503 with {@code Retry-After}, whichever controller it comes from.
+ */
+@RestControllerAdvice
+public class ServiceBusyAdvice {
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<?> handleServiceBusy(ServiceBusyException e) {
+        return serviceUnavailable(e);
+    }
+
+    static ResponseEntity<?> serviceUnavailable(ServiceBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+}
@@ -4,19 +4,17 @@ import lombok.RequiredArgsConstructor;
 import org.polythec.projecthubbe.dto.TaskDTO;
 import org.polythec.projecthubbe.entity.Task;
 import org.polythec.projecthubbe.entity.User;
+import org.polythec.projecthubbe.security.CurrentUser;
 import org.polythec.projecthubbe.service.TaskService;
-import org.polythec.projecthubbe.service.impl.UserServiceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -24,7 +22,6 @@ import java.util.stream.Collectors;
 public class TaskController {
 
     private final TaskService taskService;
-    private final UserServiceImpl userServiceImpl;
 
     @PostMapping("/create")
     public ResponseEntity<?> createTask(
@@ -39,21 +36,21 @@ public class TaskController {
         }
     }
 
+    /**
+     * Task board of a project. Each task carries its comment count; the comments themselves
+     * are only included with {@code includeComments=true}.
+     */
     @GetMapping("/project/{projectId}")
-    public ResponseEntity<List<TaskDTO>> getTasksByProject(@PathVariable Long projectId) {
-        List<Task> tasks = taskService.getTasksByProject(projectId);
-
-        List<TaskDTO> taskDTOs = tasks.stream()
-                .map(TaskDTO::new)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(taskDTOs);
+    public ResponseEntity<List<TaskDTO>> getTasksByProject(@PathVariable Long projectId,
+                                                           @RequestParam(defaultValue = "false") boolean includeComments) {
+        return ResponseEntity.ok(taskService.getTaskBoard(projectId, includeComments));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Task> getTaskById(@PathVariable Long id) {
         Optional<Task> task = taskService.getTaskById(id);
-        return task.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        return task.map(t -> ResponseEntity.ok().eTag(ETags.of(t.getVersion())).body(t))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
 
@@ -62,11 +59,12 @@ public class TaskController {
             @PathVariable Long id,
             @RequestBody Task updatedTask,
             @RequestParam(required = false) Long priorityId,
-            @RequestParam(required = false) Long statusId
+            @RequestParam(required = false) Long statusId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
         try {
-            Task task = taskService.updateTask(id, updatedTask, priorityId, statusId);
-            return ResponseEntity.ok(task);
+            Task task = taskService.updateTask(id, updatedTask, priorityId, statusId, ETags.expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(ETags.of(task.getVersion())).body(task);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
@@ -75,10 +73,8 @@ public class TaskController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteTask(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User currentUser) {
         try {
-            // Get current user ID from authentication
-            User currentUser = userServiceImpl.getCurrentlyAuthenticatedUser();
             String currentUserId = currentUser.getId();
             // Delete task with permission check
             taskService.deleteTask(id, currentUserId);
@@ -103,6 +99,7 @@ public class TaskController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
+
     @GetMapping("/user/{userId}/project/{projectId}")
     public List<Task> getTasksByUserAndProject(@PathVariable String userId, @PathVariable Long projectId) {
         return taskService.getTasksByUserAndProject(userId, projectId);
@@ -2,12 +2,17 @@ package org.polythec.projecthubbe.controller;
 
 import jakarta.validation.Valid;
 import org.polythec.projecthubbe.dto.UserDTO;
-import org.polythec.projecthubbe.entity.User;
+import org.polythec.projecthubbe.dto.UserSummaryDTO;
+import org.polythec.projecthubbe.repository.UserRepository;
+import org.polythec.projecthubbe.service.UserDirectory;
+import org.polythec.projecthubbe.service.UserPrefixIndex;
 import org.polythec.projecthubbe.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
@@ -15,14 +20,65 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/user")
 public class UserController {
     private final UserService userService;
+    private final UserPrefixIndex userPrefixIndex;
+    private final UserDirectory userDirectory;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserPrefixIndex userPrefixIndex, UserDirectory userDirectory) {
         this.userService = userService;
+        this.userPrefixIndex = userPrefixIndex;
+        this.userDirectory = userDirectory;
     }
 
+    private static final int MAX_BATCH_IDS = 200;
+
+    /**
+     * Resolves many user ids (e.g. avatars in a list) in one round trip; unknown ids are skipped.
+     */
+    @GetMapping(value = "/batch", produces = "application/json")
+    public ResponseEntity<?> getUserSummaries(@RequestParam List<String> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_BATCH_IDS + " ids per request"));
+        }
+        return ResponseEntity.ok(new ArrayList<>(userDirectory.resolve(ids).values()));
+    }
+
+    /**
+     * Keystroke autocomplete for assignee and member pickers, answered from memory.
+     */
+    @GetMapping(value = "/autocomplete", produces = "application/json")
+    public ResponseEntity<List<UserSummaryDTO>> autocomplete(@RequestParam String q,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userPrefixIndex.complete(q, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT))));
+    }
+
+    private static final int MAX_SEARCH_LIMIT = 50;
+
+    /**
+     * Ranked user search, paginated with {@link Cursors} keyed on the last row's score and id.
+     */
     @GetMapping(value = "/search", produces = "application/json")
-    public ResponseEntity<List<UserDTO>> searchUsers(@RequestParam String keyword) {
-        List<User> users = userService.searchUsersByEmailOrName(keyword);
+    public ResponseEntity<List<UserDTO>> searchUsers(@RequestParam String keyword,
+                                                     @RequestParam(defaultValue = "20") int limit,
+                                                     @RequestParam(required = false) String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        Float afterScore = null;
+        String afterId = null;
+        String position = Cursors.decodeString(cursor);
+        int separator = position != null ? position.indexOf(':') : -1;
+        if (separator > 0) {
+            try {
+                afterScore = Float.parseFloat(position.substring(0, separator));
+                afterId = position.substring(separator + 1);
+            } catch (NumberFormatException e) {
+                // Malformed cursors restart from the first page, as for the other listings
+            }
+        }
+        // One extra row tells whether there is a next page
+        List<UserRepository.RankedUserView> users = userService.searchUsers(keyword, pageSize + 1, afterScore, afterId);
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users = users.subList(0, pageSize);
+        }
         List<UserDTO> userDTOs = users.stream().map(user -> {
             UserDTO dto = new UserDTO();
             dto.setId(user.getId());
@@ -30,8 +86,14 @@ public class UserController {
             dto.setFirstName(user.getFirstName());
             dto.setLastName(user.getLastName());
             dto.setProfilePicture(user.getProfilePicture());
+            dto.setProfilePictureThumbnail(user.getProfilePictureThumbnail());
             return dto;
         }).collect(Collectors.toList());
-        return ResponseEntity.ok(userDTOs);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (hasMore) {
+            UserRepository.RankedUserView last = users.get(users.size() - 1);
+            response.header(Cursors.NEXT_CURSOR_HEADER, Cursors.encode(last.getScore() + ":" + last.getId()));
+        }
+        return response.body(userDTOs);
     }
-}
\ No newline at end of file
+}
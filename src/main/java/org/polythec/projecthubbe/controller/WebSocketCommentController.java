@@ -3,6 +3,7 @@ package org.polythec.projecthubbe.controller;
 import org.polythec.projecthubbe.dto.CommentDTO;
 import org.polythec.projecthubbe.dto.WebSocketMessage;
 import org.polythec.projecthubbe.repository.UserRepository;
+import org.polythec.projecthubbe.security.AuthenticatedUser;
 import org.polythec.projecthubbe.service.CommentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
@@ -96,6 +97,13 @@ public class WebSocketCommentController {
      * Extract user ID from the Principal object
      */
     private String extractUserId(Principal principal) {
+        // The CONNECT interceptor stores the principal built from the verified token
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof AuthenticatedUser user
+                && user.getId() != null) {
+            return user.getId();
+        }
+        // Tokens issued before the user id claim existed
         String username = principal.getName(); // usually email
         return userRepository.findByEmail(username)
                 .orElseThrow(() -> new IllegalStateException("User not found"))
@@ -37,6 +37,7 @@ public class CommentDTO {
             userDTO.setLastName(comment.getUser().getLastName());
             userDTO.setEmail(comment.getUser().getEmail());
             userDTO.setProfilePicture(comment.getUser().getProfilePicture());
+            userDTO.setProfilePictureThumbnail(comment.getUser().getProfilePictureThumbnail());
             this.user = userDTO;
         }
 
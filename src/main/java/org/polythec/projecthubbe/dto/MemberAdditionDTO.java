@@ -0,0 +1,12 @@
+package org.polythec.projecthubbe.dto;
+
+import lombok.Data;
+
+/**
+ * One entry of a batched member add: the user to add and the role to give them.
+ */
+@Data
+public class MemberAdditionDTO {
+    private String userId;
+    private String role;
+}
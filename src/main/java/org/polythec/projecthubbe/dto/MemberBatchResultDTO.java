@@ -0,0 +1,13 @@
+package org.polythec.projecthubbe.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class MemberBatchResultDTO {
+    private List<String> added = new ArrayList<>();
+    private List<String> alreadyMembers = new ArrayList<>();
+    private List<String> unknownUsers = new ArrayList<>();
+}
@@ -0,0 +1,19 @@
+package org.polythec.projecthubbe.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ProjectDeletionJobDTO {
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    private String id;
+    private Long projectId;
+    private String userId;
+    private Status status;
+    private long totalTasks;
+    private long deletedTasks;
+    private String error;
+    private LocalDateTime updatedAt;
+}
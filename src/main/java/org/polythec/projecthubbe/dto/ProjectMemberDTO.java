@@ -6,8 +6,24 @@ public class ProjectMemberDTO {
     private String firstName;
     private String lastName;
     private String profilePicture;
+    private String profilePictureThumbnail;
     private String role; // e.g., "admin", "member"
 
+    public ProjectMemberDTO() {
+    }
+
+    // Used by the constructor expression in ProjectMemberRepository.findMemberDTOsByProject
+    public ProjectMemberDTO(String id, String email, String firstName, String lastName,
+                            String profilePicture, String profilePictureThumbnail, String role) {
+        this.id = id;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.profilePicture = profilePicture;
+        this.profilePictureThumbnail = profilePictureThumbnail;
+        this.role = role;
+    }
+
     // Getters and setters
     public String getId() {
         return id;
@@ -49,6 +65,14 @@ public class ProjectMemberDTO {
         this.profilePicture = profilePicture;
     }
 
+    public String getProfilePictureThumbnail() {
+        return profilePictureThumbnail;
+    }
+
+    public void setProfilePictureThumbnail(String profilePictureThumbnail) {
+        this.profilePictureThumbnail = profilePictureThumbnail;
+    }
+
     public String getRole() {
         return role;
     }
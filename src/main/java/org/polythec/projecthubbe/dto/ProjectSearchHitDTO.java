@@ -0,0 +1,15 @@
+package org.polythec.projecthubbe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectSearchHitDTO {
+    private Long idprojet;
+    private String nom;
+    // Number of edits between the query and the closest part of the name
+    private int typos;
+}
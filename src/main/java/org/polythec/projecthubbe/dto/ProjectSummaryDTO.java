@@ -0,0 +1,22 @@
+package org.polythec.projecthubbe.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Everything the project overview card shows, computed in one query.
+ */
+@Data
+public class ProjectSummaryDTO {
+    private Long projectId;
+    private long totalTasks;
+    private long overdueTasks;
+    private long memberCount;
+    // Earliest end date among open tasks that are not overdue yet
+    private LocalDateTime nextDeadline;
+    private Map<String, Long> tasksByStatus = new LinkedHashMap<>();
+    private Map<String, Long> tasksByPriority = new LinkedHashMap<>();
+}
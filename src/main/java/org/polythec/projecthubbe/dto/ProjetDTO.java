@@ -14,4 +14,19 @@ public class ProjetDTO {
     private UserSummaryDTO owner;
     private Set<UserSummaryDTO> members;
     // No circular references
+
+    public ProjetDTO() {
+    }
+
+    // Used by the constructor expression in ProjectMemberRepository.findProjectDTOsByMember
+    public ProjetDTO(Long idprojet, String nom, String description, LocalDateTime createdDate,
+                     String ownerId, String ownerFirstName, String ownerLastName, String ownerEmail,
+                     String ownerProfilePicture, String ownerProfilePictureThumbnail) {
+        this.idprojet = idprojet;
+        this.nom = nom;
+        this.description = description;
+        this.createdDate = createdDate;
+        this.owner = new UserSummaryDTO(ownerId, ownerFirstName, ownerLastName, ownerEmail,
+                ownerProfilePicture, ownerProfilePictureThumbnail);
+    }
 }
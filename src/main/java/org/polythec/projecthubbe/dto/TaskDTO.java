@@ -29,12 +29,32 @@ public class TaskDTO {
     private String priorityName;
 
     private Set<UserSummaryDTO> assignees;
+    private long commentCount;
     @Setter
     @Getter
     private Set<CommentDTO> comments;
 
 
     public TaskDTO(org.polythec.projecthubbe.entity.Task task) {
+        copyFields(task);
+        if (task.getComments() != null) {
+            this.comments = task.getComments().stream()
+                    .map(CommentDTO::new)
+                    .collect(Collectors.toSet());
+            this.commentCount = this.comments.size();
+        }
+    }
+
+    /**
+     * Board variant that never touches {@code task.getComments()}; {@code comments} may be null when not requested.
+     */
+    public TaskDTO(org.polythec.projecthubbe.entity.Task task, long commentCount, Set<CommentDTO> comments) {
+        copyFields(task);
+        this.commentCount = commentCount;
+        this.comments = comments;
+    }
+
+    private void copyFields(org.polythec.projecthubbe.entity.Task task) {
         this.id = task.getId();
         this.title = task.getTitle();
         this.type = task.getType();
@@ -65,11 +85,6 @@ public class TaskDTO {
                     .map(UserSummaryDTO::new) // Tu dois avoir un constructeur UserSummaryDTO(User user)
                     .collect(java.util.stream.Collectors.toSet());
         }
-        if (task.getComments() != null) {
-            this.comments = task.getComments().stream()
-                    .map(CommentDTO::new)
-                    .collect(Collectors.toSet());
-        }
     }
 
 }
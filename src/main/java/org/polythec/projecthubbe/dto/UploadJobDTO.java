@@ -0,0 +1,19 @@
+package org.polythec.projecthubbe.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class UploadJobDTO {
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    private String id;
+    private String userId;
+    private Status status;
+    private int attempts;
+    private String url;
+    private String publicId;
+    private String error;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package org.polythec.projecthubbe.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Everything a client needs to upload a file straight to storage: post the file with
+ * {@code api_key}, {@code timestamp}, {@code public_id} and {@code signature} to {@code uploadUrl}.
+ */
+@Data
+public class UploadTicketDTO {
+    private String uploadUrl;
+    private String apiKey;
+    private String publicId;
+    private long timestamp;
+    private String signature;
+    private Instant expiresAt;
+}
@@ -11,6 +11,7 @@ public class UserDTO {
 
     private String lastName;
     private String profilePicture;
+    private String profilePictureThumbnail;
     private String role;
     private String cloudinaryPublicId; // Add this field
 
@@ -65,6 +66,14 @@ public class UserDTO {
         this.lastName = lastName;
     }
 
+    public String getProfilePictureThumbnail() {
+        return profilePictureThumbnail;
+    }
+
+    public void setProfilePictureThumbnail(String profilePictureThumbnail) {
+        this.profilePictureThumbnail = profilePictureThumbnail;
+    }
+
     public String getProfilePicture() {
         return profilePicture;
     }
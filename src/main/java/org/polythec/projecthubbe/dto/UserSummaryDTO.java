@@ -8,10 +8,26 @@ public class UserSummaryDTO {
     private String firstName;
     private String lastName;
     private String email;
+    private String profilePicture;
+    private String profilePictureThumbnail;
     // No project references
     public UserSummaryDTO(org.polythec.projecthubbe.entity.User user) {
         this.id = user.getId();
-        this.firstName = user.getUsername();
+        this.firstName = user.getFirstName();
+        this.lastName = user.getLastName();
+        this.email = user.getEmail();
+        this.profilePicture = user.getProfilePicture();
+        this.profilePictureThumbnail = user.getProfilePictureThumbnail();
+    }
+    // Used by the constructor expression in UserRepository.findSummariesByIdIn
+    public UserSummaryDTO(String id, String firstName, String lastName, String email,
+                          String profilePicture, String profilePictureThumbnail) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.profilePicture = profilePicture;
+        this.profilePictureThumbnail = profilePictureThumbnail;
     }
     public UserSummaryDTO() {
 
@@ -51,6 +51,10 @@ public class User implements UserDetails{
     @Column(name = "profile_picture")
     private String profilePicture;
 
+    // Small square rendition of profilePicture, for lists
+    @Column(name = "profile_picture_thumbnail")
+    private String profilePictureThumbnail;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
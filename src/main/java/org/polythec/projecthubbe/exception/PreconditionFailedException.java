@@ -0,0 +1,10 @@
+package org.polythec.projecthubbe.exception;
+
+/**
+ * The client edited a stale copy: the version it sent in {@code If-Match} is no longer current.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package org.polythec.projecthubbe.exception;
+
+/**
+ * A bounded resource (worker queue, hashing pool, failing storage) cannot take the request right now.
+ * Answered with 503 and a {@code Retry-After} header.
+ */
+public class ServiceBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package org.polythec.projecthubbe.exception;
+
+public class UnsupportedImageTypeException extends RuntimeException {
+    public UnsupportedImageTypeException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,8 @@ package org.polythec.projecthubbe.repository;
 
 import org.polythec.projecthubbe.entity.Comment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +16,18 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     // Count comments for a specific task
     Long countByTaskId(Long taskId);
+
+    // Comment counts of every task of a project that has comments
+    @Query("SELECT c.task.id AS taskId, COUNT(c) AS commentCount FROM Comment c " +
+            "WHERE c.task.project.idprojet = :projectId GROUP BY c.task.id")
+    List<TaskCommentCount> countByProject(@Param("projectId") Long projectId);
+
+    // Every comment of a project with its author, newest first
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.task.project.idprojet = :projectId ORDER BY c.createdAt DESC")
+    List<Comment> findByProjectWithUser(@Param("projectId") Long projectId);
+
+    interface TaskCommentCount {
+        Long getTaskId();
+        long getCommentCount();
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package org.polythec.projecthubbe.repository;
 
+import org.polythec.projecthubbe.dto.ProjectMemberDTO;
+import org.polythec.projecthubbe.dto.ProjetDTO;
 import org.polythec.projecthubbe.entity.ProjectMember;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -8,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,8 +24,50 @@ public interface ProjectMemberRepository extends JpaRepository<ProjectMember, Lo
 
     boolean existsByProjectIdprojetAndUserId(Long projectId, String userId);
 
+    /**
+     * Projects the user is a member of, with their owners, in a single query.
+     */
+    @Query("SELECT new org.polythec.projecthubbe.dto.ProjetDTO(" +
+            "p.idprojet, p.nom, p.description, p.createdDate, " +
+            "o.id, o.firstName, o.lastName, o.email, o.profilePicture, o.profilePictureThumbnail) " +
+            "FROM ProjectMember pm JOIN pm.project p JOIN p.owner o " +
+            "WHERE pm.user.id = :userId ORDER BY p.createdDate DESC")
+    List<ProjetDTO> findProjectDTOsByMember(@Param("userId") String userId);
+
+    /**
+     * Members of a project with their roles, in a single query.
+     */
+    @Query("SELECT new org.polythec.projecthubbe.dto.ProjectMemberDTO(" +
+            "u.id, u.email, u.firstName, u.lastName, u.profilePicture, u.profilePictureThumbnail, pm.role) " +
+            "FROM ProjectMember pm JOIN pm.user u " +
+            "WHERE pm.project.idprojet = :projectId")
+    List<ProjectMemberDTO> findMemberDTOsByProject(@Param("projectId") Long projectId);
+
+    /**
+     * Every project the user belongs to with their role, ordered by project id.
+     */
+    @Query("SELECT pm.project.idprojet AS projectId, pm.role AS role FROM ProjectMember pm " +
+            "WHERE pm.user.id = :userId ORDER BY pm.project.idprojet")
+    List<MembershipView> findMembershipsByUser(@Param("userId") String userId);
+
+    @Query("SELECT pm.role FROM ProjectMember pm WHERE pm.project.idprojet = :projectId AND pm.user.id = :userId")
+    Optional<String> findRole(@Param("projectId") Long projectId, @Param("userId") String userId);
+
+    @Query("SELECT pm.user.id FROM ProjectMember pm WHERE pm.project.idprojet = :projectId AND pm.user.id IN :userIds")
+    List<String> findMemberUserIds(@Param("projectId") Long projectId, @Param("userIds") Collection<String> userIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM project_members WHERE project_id = :projectId", nativeQuery = true)
+    int deleteAllByProject(@Param("projectId") Long projectId);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM ProjectMember pm WHERE pm.project.idprojet = :projectId AND pm.user.id = :userId")
     void deleteByProjectIdprojetAndUserId(@Param("projectId") Long projectId, @Param("userId") String userId);
+
+    interface MembershipView {
+        Long getProjectId();
+
+        String getRole();
+    }
 }
\ No newline at end of file
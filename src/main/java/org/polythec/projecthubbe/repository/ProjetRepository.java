@@ -1,11 +1,12 @@
 package org.polythec.projecthubbe.repository;
 
-import jakarta.persistence.LockModeType;
+import org.polythec.projecthubbe.dto.ProjetDTO;
 import org.polythec.projecthubbe.entity.ProjectMember;
 import org.polythec.projecthubbe.entity.Projet;
 import org.polythec.projecthubbe.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -13,7 +14,6 @@ import java.util.List;
 import java.util.Optional;
 
 public interface ProjetRepository extends JpaRepository<Projet, Long> {
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
     // Find all projects owned by a specific user
     List<Projet> findByOwner(User owner);
 
@@ -27,4 +27,41 @@ public interface ProjetRepository extends JpaRepository<Projet, Long> {
 
 
     List<Projet> findByOwnerId(String ownerId);
+
+    @Query("SELECT p.owner.id FROM Projet p WHERE p.idprojet = :projectId")
+    Optional<String> findOwnerIdById(@Param("projectId") Long projectId);
+
+    // Clears the persistence context: entities loaded earlier in the transaction no longer exist
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM projets WHERE idprojet = :projectId", nativeQuery = true)
+    int deleteByIdNative(@Param("projectId") Long projectId);
+
+    /**
+     * Minimal columns needed to build the project name index at startup.
+     */
+    @Query("SELECT p.idprojet AS idprojet, p.nom AS nom FROM Projet p")
+    List<ProjectNameView> findAllForIndex();
+
+    interface ProjectNameView {
+        Long getIdprojet();
+        String getNom();
+    }
+
+    /**
+     * One keyset page of projects after {@code afterId}, optionally restricted to an owner
+     * and/or a member. Served from the primary key index, however deep the page.
+     */
+    @Query("SELECT new org.polythec.projecthubbe.dto.ProjetDTO(" +
+            "p.idprojet, p.nom, p.description, p.createdDate, " +
+            "o.id, o.firstName, o.lastName, o.email, o.profilePicture, o.profilePictureThumbnail) " +
+            "FROM Projet p JOIN p.owner o " +
+            "WHERE p.idprojet > :afterId " +
+            "AND (:ownerId IS NULL OR o.id = :ownerId) " +
+            "AND (:memberId IS NULL OR EXISTS (" +
+            "SELECT 1 FROM ProjectMember pm WHERE pm.project = p AND pm.user.id = :memberId)) " +
+            "ORDER BY p.idprojet")
+    List<ProjetDTO> findPageAfter(@Param("afterId") Long afterId,
+                                  @Param("ownerId") String ownerId,
+                                  @Param("memberId") String memberId,
+                                  Pageable pageable);
 }
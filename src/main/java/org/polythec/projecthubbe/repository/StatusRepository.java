@@ -3,5 +3,8 @@ package org.polythec.projecthubbe.repository;
 import org.polythec.projecthubbe.entity.Status;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface StatusRepository extends JpaRepository<Status, Long> {
+    Optional<Status> findByNameIgnoreCase(String name);
 }
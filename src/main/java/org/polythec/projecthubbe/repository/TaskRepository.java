@@ -1,6 +1,8 @@
 package org.polythec.projecthubbe.repository;
 import org.polythec.projecthubbe.entity.Task;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +16,13 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     Optional<Task> findById(Long id);
 
     public List<Task> findByProjectIdprojet(Long projectId);
+
+    /**
+     * Tasks of a project for the board, with project, status, priority and assignees fetched in the same query.
+     */
+    @EntityGraph(attributePaths = {"project", "status", "priority", "assignees"})
+    @Query("SELECT DISTINCT t FROM Task t WHERE t.project.idprojet = :projectId ORDER BY t.id")
+    List<Task> findBoardByProject(@Param("projectId") Long projectId);
     @Query("SELECT t FROM Task t JOIN t.assignees a WHERE a.id = :userId AND t.project.idprojet = :projectId")
     List<Task> findByAssigneesIdAndProjectIdprojet(@Param("userId") String userId, @Param("projectId") Long projectId);
     @Transactional(readOnly = true)
@@ -30,6 +39,92 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      */
     List<Task> findByProjectIdprojetAndStatusIdNot(Long projectId, Long statusId);
 
+    /**
+     * Dashboard aggregates of a project in one pass over its tasks: one row per status,
+     * one row per priority and a grand total row carrying the overdue count, the next
+     * deadline and the member count. A task's priority is taken from task_priorities,
+     * which is what updates maintain, falling back to tasks.priority_id.
+     */
+    @Query(value = "WITH project_tasks AS (" +
+            "  SELECT t.status_id, t.end_date, " +
+            "         COALESCE((SELECT MIN(tp.priority_id) FROM task_priorities tp WHERE tp.task_id = t.id), t.priority_id) AS priority_id " +
+            "  FROM tasks t WHERE t.idprojet = :projectId" +
+            "), aggregates AS (" +
+            "  SELECT pt.status_id, pt.priority_id, " +
+            "         GROUPING(pt.status_id) AS status_rollup, GROUPING(pt.priority_id) AS priority_rollup, " +
+            "         COUNT(*) AS task_count, " +
+            "         COUNT(*) FILTER (WHERE pt.end_date < now() AND pt.status_id IS DISTINCT FROM :completedStatusId) AS overdue_count, " +
+            "         MIN(pt.end_date) FILTER (WHERE pt.end_date >= now() AND pt.status_id IS DISTINCT FROM :completedStatusId) AS next_deadline " +
+            "  FROM project_tasks pt " +
+            "  GROUP BY GROUPING SETS ((pt.status_id), (pt.priority_id), ())" +
+            ") " +
+            "SELECT s.name AS \"statusName\", p.name AS \"priorityName\", " +
+            "       a.status_rollup AS \"statusRollup\", a.priority_rollup AS \"priorityRollup\", " +
+            "       a.task_count AS \"taskCount\", a.overdue_count AS \"overdueCount\", a.next_deadline AS \"nextDeadline\", " +
+            "       (SELECT COUNT(*) FROM project_members pm WHERE pm.project_id = :projectId) AS \"memberCount\" " +
+            "FROM aggregates a " +
+            "LEFT JOIN statuses s ON s.id = a.status_id " +
+            "LEFT JOIN priorities p ON p.id = a.priority_id",
+            nativeQuery = true)
+    List<ProjectTaskAggregate> aggregateByProject(@Param("projectId") Long projectId,
+                                                  @Param("completedStatusId") Long completedStatusId);
+
+    long countByProjectIdprojet(Long projectId);
+
+    // Set-based deletion of a project's tasks and their dependent rows, used by ProjectDeletionService
+
+    @Modifying
+    @Query(value = "DELETE FROM assignees a USING tasks t WHERE a.task_id = t.id AND t.idprojet = :projectId", nativeQuery = true)
+    int deleteAssigneesByProject(@Param("projectId") Long projectId);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_priorities tp USING tasks t WHERE tp.task_id = t.id AND t.idprojet = :projectId", nativeQuery = true)
+    int deleteTaskPrioritiesByProject(@Param("projectId") Long projectId);
+
+    @Modifying
+    @Query(value = "DELETE FROM comments c USING tasks t WHERE c.task_id = t.id AND t.idprojet = :projectId", nativeQuery = true)
+    int deleteCommentsByProject(@Param("projectId") Long projectId);
+
+    @Modifying
+    @Query(value = "DELETE FROM tasks WHERE idprojet = :projectId", nativeQuery = true)
+    int deleteAllByProject(@Param("projectId") Long projectId);
+
+    // Clears the persistence context so tasks loaded earlier don't keep the removed assignee
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM assignees WHERE user_id = :userId " +
+            "AND task_id IN (SELECT id FROM tasks WHERE idprojet = :projectId)", nativeQuery = true)
+    int deleteAssigneeFromProject(@Param("projectId") Long projectId, @Param("userId") String userId);
+
+    @Query(value = "SELECT id FROM tasks WHERE idprojet = :projectId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdBatchByProject(@Param("projectId") Long projectId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM assignees WHERE task_id IN (:taskIds)", nativeQuery = true)
+    int deleteAssigneesByTaskIds(@Param("taskIds") List<Long> taskIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_priorities WHERE task_id IN (:taskIds)", nativeQuery = true)
+    int deleteTaskPrioritiesByTaskIds(@Param("taskIds") List<Long> taskIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM comments WHERE task_id IN (:taskIds)", nativeQuery = true)
+    int deleteCommentsByTaskIds(@Param("taskIds") List<Long> taskIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM tasks WHERE id IN (:taskIds)", nativeQuery = true)
+    int deleteByIds(@Param("taskIds") List<Long> taskIds);
+
+    interface ProjectTaskAggregate {
+        String getStatusName();
+        String getPriorityName();
+        int getStatusRollup();
+        int getPriorityRollup();
+        long getTaskCount();
+        long getOverdueCount();
+        LocalDateTime getNextDeadline();
+        long getMemberCount();
+    }
+
 
 }
 
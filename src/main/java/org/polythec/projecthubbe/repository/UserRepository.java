@@ -1,10 +1,12 @@
 package org.polythec.projecthubbe.repository;
 
+import org.polythec.projecthubbe.dto.UserSummaryDTO;
 import org.polythec.projecthubbe.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,8 +44,65 @@ public interface UserRepository extends JpaRepository<User, String> {
      * @return a list of users with the specified status
      */
     List<User> findByStatus(String status);
-    @Query("SELECT u FROM User u WHERE " +
-            "LOWER(u.email) LIKE LOWER(CONCAT('%', :email, '%')) OR " +
-            "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<User> findByEmailContainingIgnoreCaseOrNameContainingIgnoreCase(@Param("email") String email, @Param("name") String name);
+
+    /**
+     * Ranked substring search over email, first and last name.
+     * The expression matches the pg_trgm GIN index created by db/user-search-trgm.sql, so the
+     * LIKE is answered from the index instead of a sequential scan. {@code similarity} comes from
+     * pg_trgm, so that migration must have been run.
+     *
+     * Pages by keyset on {@code (score, id)}: the next page starts strictly after the last row returned,
+     * so rows added or renamed meanwhile cannot shift it.
+     *
+     * @param pattern an already escaped, lower-cased LIKE pattern such as {@code %ali%}
+     * @param keyword the lower-cased keyword used for similarity ranking
+     * @param afterScore score of the last row of the previous page, or anything above 1 for the first page
+     * @param afterId id of the last row of the previous page, or an empty string for the first page
+     */
+    @Query(value = "SELECT r.id AS \"id\", r.email AS \"email\", r.first_name AS \"firstName\", " +
+            "       r.last_name AS \"lastName\", r.profile_picture AS \"profilePicture\", " +
+            "       r.profile_picture_thumbnail AS \"profilePictureThumbnail\", r.score AS \"score\" " +
+            "FROM (SELECT u.*, similarity(lower(u.email || ' ' || u.first_name || ' ' || u.last_name), :keyword) AS score " +
+            "      FROM users u " +
+            "      WHERE lower(u.email || ' ' || u.first_name || ' ' || u.last_name) LIKE :pattern) r " +
+            "WHERE r.score < CAST(:afterScore AS real) OR (r.score = CAST(:afterScore AS real) AND r.id > :afterId) " +
+            "ORDER BY r.score DESC, r.id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<RankedUserView> searchRanked(@Param("pattern") String pattern, @Param("keyword") String keyword,
+                                      @Param("afterScore") float afterScore, @Param("afterId") String afterId,
+                                      @Param("limit") int limit);
+
+    interface RankedUserView {
+        String getId();
+        String getEmail();
+        String getFirstName();
+        String getLastName();
+        String getProfilePicture();
+        String getProfilePictureThumbnail();
+        float getScore();
+    }
+
+    /**
+     * Summaries of many users in one query, for {@code UserDirectory}.
+     */
+    @Query("SELECT new org.polythec.projecthubbe.dto.UserSummaryDTO(" +
+            "u.id, u.firstName, u.lastName, u.email, u.profilePicture, u.profilePictureThumbnail) " +
+            "FROM User u WHERE u.id IN :ids")
+    List<UserSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * Minimal columns needed to build the autocomplete index at startup.
+     */
+    @Query("SELECT u.id AS id, u.firstName AS firstName, u.lastName AS lastName, u.email AS email FROM User u")
+    List<UserIndexView> findAllForIndex();
+
+    interface UserIndexView {
+        String getId();
+        String getFirstName();
+        String getLastName();
+        String getEmail();
+    }
 }
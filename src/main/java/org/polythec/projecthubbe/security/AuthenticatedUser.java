@@ -0,0 +1,78 @@
+package org.polythec.projecthubbe.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable principal rebuilt from the claims of a verified JWT.
+ * It carries what the request pipeline needs about the caller so that
+ * authenticating a request does not require loading the {@code User} entity.
+ * At login it is built from the cached user instead and also carries the password hash.
+ */
+@Getter
+public final class AuthenticatedUser implements UserDetails {
+
+    private final String id;
+    private final String email;
+    private final String status;
+    private final boolean verified;
+    @Getter(AccessLevel.NONE)
+    private final String passwordHash;
+
+    public AuthenticatedUser(String id, String email, String status, boolean verified) {
+        this(id, email, null, status, verified);
+    }
+
+    public AuthenticatedUser(String id, String email, String passwordHash, String status, boolean verified) {
+        this.id = id;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.status = status;
+        this.verified = verified;
+    }
+
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        return new AuthenticatedUser(
+                claims.get(JwtUtil.CLAIM_USER_ID, String.class),
+                claims.getSubject(),
+                claims.get(JwtUtil.CLAIM_STATUS, String.class),
+                Boolean.TRUE.equals(claims.get(JwtUtil.CLAIM_VERIFIED, Boolean.class))
+        );
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of();
+    }
+
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return !"banned".equals(status);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !"banned".equals(status);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{id='" + id + "', email='" + email + "'}";
+    }
+}
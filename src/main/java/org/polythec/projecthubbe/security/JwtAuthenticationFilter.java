@@ -1,5 +1,6 @@
 package org.polythec.projecthubbe.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -18,10 +19,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                                   TokenRevocationService tokenRevocationService) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -39,17 +43,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (token != null) {
             try {
-                if (token.split("\\.").length != 3) {
-                    throw new JwtException("Invalid JWT structure");
+                // Parsed and verified once; repeated requests with the same token hit the claims cache
+                Claims claims = jwtUtil.parseVerifiedClaims(token);
+                if (tokenRevocationService.isRevoked(claims)) {
+                    throw new JwtException("Revoked JWT token");
                 }
-
-                if (!jwtUtil.isTokenValid(token)) {
-                    throw new JwtException("Invalid JWT signature");
+                UserDetails userDetails;
+                if (claims.get(JwtUtil.CLAIM_USER_ID) != null) {
+                    AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
+                    if (!principal.isEnabled()) {
+                        throw new JwtException("Revoked JWT token");
+                    }
+                    userDetails = principal;
+                } else {
+                    // Tokens issued before user claims were embedded still need a lookup
+                    userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
                 }
 
-                String username = jwtUtil.extractUsername(token);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
                 SecurityContextHolder.getContext().setAuthentication(
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -58,7 +68,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         )
                 );
 
-            } catch (JwtException | UsernameNotFoundException e) {
+            } catch (JwtException | IllegalArgumentException | UsernameNotFoundException e) {
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
                 return; // Block invalid requests
             }
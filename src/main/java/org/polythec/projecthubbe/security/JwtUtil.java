@@ -1,5 +1,8 @@
 package org.polythec.projecthubbe.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -7,12 +10,15 @@ import org.polythec.projecthubbe.entity.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
@@ -24,13 +30,32 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
     private SecretKey secretKey;
 
+    private JwtParser parser;
+
+    // Verified claims keyed by a digest of the token, each entry expiring with the token itself
+    private Cache<String, Claims> verifiedClaims;
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_STATUS = "status";
+    public static final String CLAIM_VERIFIED = "verified";
+    // The standard iat claim only has second resolution, too coarse to compare with a revocation epoch
+    public static final String CLAIM_ISSUED_AT_MILLIS = "iat_ms";
 
     // Generate token for user
     public String generateToken(UserDetails userDetails) {
-        return createToken(new HashMap<>(), userDetails.getUsername());
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof AuthenticatedUser user) {
+            // Embedded so that requests can be authenticated without loading the user
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_STATUS, user.getStatus());
+            claims.put(CLAIM_VERIFIED, user.isVerified());
+        }
+        return createToken(claims, userDetails.getUsername());
     }
 
     // Validate token
@@ -47,6 +72,46 @@ public class JwtUtil {
     @PostConstruct
     public void initSecretKey() {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().setSigningKey(secretKey).build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date exp = claims.getExpiration();
+                        long millisLeft = exp != null ? exp.getTime() - System.currentTimeMillis() : expiration;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisLeft));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Parses the token, verifies its signature and expiry, and returns its claims.
+     * A token is only parsed once: later calls are served from a bounded cache
+     * until the token's own {@code exp} passes.
+     *
+     * @throws JwtException if the token is malformed, badly signed or expired
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public Claims parseVerifiedClaims(String token) {
+        String key = digest(token);
+        Claims claims = verifiedClaims.getIfPresent(key);
+        if (claims == null) {
+            claims = parser.parseSignedClaims(token).getPayload();
+            verifiedClaims.put(key, claims);
+        }
+        return claims;
     }
     // Extract expiration date from token
     public Date extractExpiration(String token) {
@@ -55,23 +120,31 @@ public class JwtUtil {
 
     // Generic claim extraction
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseVerifiedClaims(token);
         return claimsResolver.apply(claims);
     }
 
 
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims)
+                .claim(CLAIM_ISSUED_AT_MILLIS, now)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration))
                 .signWith(SignatureAlgorithm.HS256, secretKey)
                 .compact();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(secretKey).build().parseSignedClaims(token).getBody();
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     private Boolean isTokenExpired(String token) {
@@ -81,7 +154,7 @@ public class JwtUtil {
     // Handle different JWT exceptions
     public Boolean isTokenValid(String token) {
         try {
-            Jwts.parser().setSigningKey(secretKey).build().parseSignedClaims(token).getBody();;
+            parseVerifiedClaims(token);
             return true;
         } catch (SignatureException ex) {
             System.err.println("Invalid JWT signature: " + ex.getMessage());
@@ -96,49 +169,15 @@ public class JwtUtil {
         }
         return false;
     }
-    // Add to JwtUtil.java
-    public Authentication getAuthentication(String token) {
-        UserDetails userDetails = new User() {
-            @Override
-            public Collection<? extends GrantedAuthority> getAuthorities() {
-                return Collections.emptyList();
-            }
-
-            @Override
-            public String getPassword() {
-                return "";
-            }
-
-            @Override
-            public String getUsername() {
-                return extractUsername(token);
-            }
-
-            @Override
-            public boolean isAccountNonExpired() {
-                return true;
-            }
-
-            @Override
-            public boolean isAccountNonLocked() {
-                return true;
-            }
-
-            @Override
-            public boolean isCredentialsNonExpired() {
-                return true;
-            }
-
-            @Override
-            public boolean isEnabled() {
-                return true;
-            }
-        };
-
+    /**
+     * Builds an authentication for already verified claims without touching the token again.
+     */
+    public Authentication getAuthentication(Claims claims) {
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
         return new UsernamePasswordAuthenticationToken(
-                userDetails,
-                "",
-                userDetails.getAuthorities()
+                principal,
+                null,
+                principal.getAuthorities()
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package org.polythec.projecthubbe.security;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.polythec.projecthubbe.entity.RevokedToken;
+import org.polythec.projecthubbe.repository.RevokedTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation of JWTs before their natural expiry.
+ * Single tokens are revoked by {@code jti} (logout), and all tokens of a user by recording
+ * an epoch before which that user's tokens are rejected (ban, deactivation, deletion).
+ * <p>
+ * The per-request check is an in-memory Bloom filter over revoked token ids; only the rare
+ * positive answer is confirmed against the persisted denylist. Denylist rows expire with the
+ * tokens they cover and are purged and reloaded periodically, which also picks up
+ * revocations made by other instances.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${jwt.expiration}")
+    private Long expiration;
+
+    @Value("${app.token-revocation.expected-revocations:10000}")
+    private int expectedRevocations;
+
+    @Value("${app.token-revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile TokenBloomFilter revokedTokenIds;
+
+    // userId -> revocation time in epoch milliseconds; tokens issued before it are rejected
+    private volatile Map<String, Long> userEpochs = new ConcurrentHashMap<>();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+
+    /**
+     * Revokes a single token, typically on logout.
+     */
+    public synchronized void revokeToken(String tokenId, Date tokenExpiresAt) {
+        LocalDateTime expiresAt = tokenExpiresAt != null
+                ? LocalDateTime.ofInstant(tokenExpiresAt.toInstant(), ZoneId.systemDefault())
+                : LocalDateTime.now().plusNanos(expiration * 1_000_000);
+        revokedTokenRepository.save(new RevokedToken(tokenId, RevokedToken.Kind.TOKEN, LocalDateTime.now(), expiresAt));
+        revokedTokenIds.put(tokenId);
+    }
+
+    /**
+     * Revokes every token issued to the user so far.
+     */
+    public synchronized void revokeAllForUser(String userId) {
+        Instant revokedAt = Instant.now();
+        LocalDateTime now = LocalDateTime.ofInstant(revokedAt, ZoneId.systemDefault());
+        // After one token lifetime every token issued before the epoch has expired anyway
+        LocalDateTime expiresAt = now.plusNanos(expiration * 1_000_000);
+        revokedTokenRepository.save(new RevokedToken(userId, RevokedToken.Kind.USER, now, expiresAt));
+        userEpochs.put(userId, revokedAt.toEpochMilli());
+    }
+
+    /**
+     * Checks already verified claims against the revocation lists.
+     */
+    public boolean isRevoked(Claims claims) {
+        String userId = claims.get(JwtUtil.CLAIM_USER_ID, String.class);
+        if (userId != null) {
+            Long epochMillis = userEpochs.get(userId);
+            if (epochMillis != null) {
+                Long issuedAtMillis = issuedAtMillis(claims);
+                // A token issued right after an unban, even within the same second, stays valid
+                if (issuedAtMillis == null || issuedAtMillis < epochMillis) {
+                    return true;
+                }
+            }
+        }
+        String tokenId = claims.getId();
+        return tokenId != null
+                && revokedTokenIds.mightContain(tokenId)
+                && revokedTokenRepository.existsById(tokenId);
+    }
+
+    private static Long issuedAtMillis(Claims claims) {
+        Number millis = claims.get(JwtUtil.CLAIM_ISSUED_AT_MILLIS, Number.class);
+        if (millis != null) {
+            return millis.longValue();
+        }
+        // Older tokens only carry the second-resolution iat
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null ? issuedAt.getTime() : null;
+    }
+
+    /**
+     * Drops expired denylist rows and rebuilds the in-memory structures from what is left.
+     */
+    @Scheduled(fixedDelayString = "${app.token-revocation.refresh-interval-ms:60000}")
+    public synchronized void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        List<RevokedToken> active = revokedTokenRepository.findByExpiresAtAfter(now);
+
+        TokenBloomFilter filter = new TokenBloomFilter(Math.max(expectedRevocations, active.size() * 2), falsePositiveRate);
+        Map<String, Long> epochs = new ConcurrentHashMap<>();
+        for (RevokedToken revoked : active) {
+            if (revoked.getKind() == RevokedToken.Kind.TOKEN) {
+                filter.put(revoked.getId());
+            } else {
+                Instant revokedAt = revoked.getRevokedAt().atZone(ZoneId.systemDefault()).toInstant();
+                epochs.put(revoked.getId(), revokedAt.toEpochMilli());
+            }
+        }
+        this.revokedTokenIds = filter;
+        this.userEpochs = epochs;
+        if (purged > 0) {
+            log.debug("Purged {} expired token revocations", purged);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.polythec.projecthubbe.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size pools with a bounded queue for work that must not pile up on request threads.
+ * When the queue is full, {@code execute} and {@code submit} throw
+ * {@link java.util.concurrent.RejectedExecutionException}, which callers turn into a
+ * {@link org.polythec.projecthubbe.exception.ServiceBusyException}. Threads are daemons named
+ * {@code <name>-<n>}, so a stuck job never blocks shutdown.
+ */
+public final class BoundedExecutors {
+
+    private BoundedExecutors() {
+    }
+
+    public static ThreadPoolExecutor create(String name, int threads, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
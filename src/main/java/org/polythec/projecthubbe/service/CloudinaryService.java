@@ -1,31 +1,137 @@
 package org.polythec.projecthubbe.service;
 
 import com.cloudinary.Cloudinary;
+import com.cloudinary.Transformation;
 import com.cloudinary.utils.ObjectUtils;
+import org.polythec.projecthubbe.dto.UploadTicketDTO;
+import org.polythec.projecthubbe.exception.InvalidUploadException;
 import org.polythec.projecthubbe.repository.CloudinaryUploadResult;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
 
 @Service
 public class CloudinaryService {
+    private static final String AVATAR_FOLDER = "avatars";
+
     private final Cloudinary cloudinary;
+    private final String uploadUrl;
+    private final Duration ticketTtl;
 
-    public CloudinaryService() {
-        this.cloudinary = new Cloudinary(ObjectUtils.asMap(
-                "cloud_name", "duxnqtjbb",
-                "api_key", "783549275919169",
-                "api_secret", "a6oIPBSfRBqY6NYIn-CeXjd-vKs"
-        ));
+    public CloudinaryService(@Value("${CLOUDINARY_URL}") String cloudinaryUrl,
+                             @Value("${cloudinary.upload-url:}") String uploadUrl,
+                             @Value("${app.uploads.ticket-ttl:PT10M}") Duration ticketTtl) {
+        this.cloudinary = new Cloudinary(cloudinaryUrl);
+        this.uploadUrl = uploadUrl == null || uploadUrl.isBlank()
+                ? "https://api.cloudinary.com/v1_1/" + cloudinary.config.cloudName + "/image/upload"
+                : uploadUrl;
+        this.ticketTtl = ticketTtl;
     }
 
-    public CloudinaryUploadResult uploadFile(MultipartFile file) throws IOException {
-        Map uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
+    /**
+     * Uploads a file from disk; the SDK streams it instead of loading it into memory.
+     */
+    public CloudinaryUploadResult uploadFile(Path file, Duration timeout) throws IOException {
+        Map uploadResult = cloudinary.uploader().upload(file.toFile(),
+                ObjectUtils.asMap("timeout", (int) timeout.toSeconds()));
         return new CloudinaryUploadResult() {{
             setPublic_id((String) uploadResult.get("public_id"));
             setSecure_url((String) uploadResult.get("secure_url"));
         }};
     }
-}
\ No newline at end of file
+
+    /**
+     * URL of a square, center-cropped rendition of the image.
+     */
+    public String derivativeUrl(String publicId, int size) {
+        return cloudinary.url()
+                .secure(true)
+                .transformation(new Transformation().width(size).height(size).crop("fill"))
+                .generate(publicId);
+    }
+
+    public void deleteFile(String publicId) throws IOException {
+        cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+    }
+
+    /**
+     * Signs a one-off upload of a profile picture that the client sends straight to storage.
+     * The public id is fixed by the server and scoped to the user, so the signature cannot
+     * be reused to overwrite someone else's image.
+     */
+    public UploadTicketDTO createAvatarUploadTicket(String userId) {
+        long timestamp = Instant.now().getEpochSecond();
+        String publicId = avatarPrefix(userId) + UUID.randomUUID();
+
+        Map<String, Object> params = new TreeMap<>();
+        params.put("public_id", publicId);
+        params.put("timestamp", timestamp);
+
+        UploadTicketDTO ticket = new UploadTicketDTO();
+        ticket.setUploadUrl(uploadUrl);
+        ticket.setApiKey(cloudinary.config.apiKey);
+        ticket.setPublicId(publicId);
+        ticket.setTimestamp(timestamp);
+        ticket.setSignature(sign(params));
+        ticket.setExpiresAt(Instant.ofEpochSecond(timestamp).plus(ticketTtl));
+        return ticket;
+    }
+
+    /**
+     * Checks the signature storage returned for a direct upload and returns the delivery URL.
+     *
+     * @throws InvalidUploadException if the upload was not issued to this user or the signature does not match
+     */
+    public CloudinaryUploadResult confirmAvatarUpload(String userId, String publicId, long version, String signature) {
+        if (publicId == null || !publicId.startsWith(avatarPrefix(userId))) {
+            throw new InvalidUploadException("Upload does not belong to the current user");
+        }
+        Map<String, Object> signed = new TreeMap<>();
+        signed.put("public_id", publicId);
+        signed.put("version", version);
+        String expected = sign(signed);
+        if (signature == null || !MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8), signature.getBytes(StandardCharsets.UTF_8))) {
+            throw new InvalidUploadException("Invalid upload signature");
+        }
+
+        String secureUrl = cloudinary.url().secure(true).version(version).generate(publicId);
+        return new CloudinaryUploadResult() {{
+            setPublic_id(publicId);
+            setSecure_url(secureUrl);
+        }};
+    }
+
+    private static String avatarPrefix(String userId) {
+        return AVATAR_FOLDER + "/" + userId + "/";
+    }
+
+    // Cloudinary request signature: SHA-1 over the sorted "key=value" pairs followed by the API secret
+    private String sign(Map<String, Object> sortedParams) {
+        StringBuilder toSign = new StringBuilder();
+        for (Map.Entry<String, Object> param : sortedParams.entrySet()) {
+            if (!toSign.isEmpty()) {
+                toSign.append('&');
+            }
+            toSign.append(param.getKey()).append('=').append(param.getValue());
+        }
+        toSign.append(cloudinary.config.apiSecret);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(toSign.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
@@ -8,8 +8,6 @@ import org.polythec.projecthubbe.repository.CommentRepository;
 import org.polythec.projecthubbe.repository.TaskRepository;
 import org.polythec.projecthubbe.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,13 +22,15 @@ public class CommentService {
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final UserService userService;
 
     @Autowired
-    public CommentService(CommentRepository commentRepository, TaskRepository taskRepository, UserRepository userRepository, NotificationService notificationService) {
+    public CommentService(CommentRepository commentRepository, TaskRepository taskRepository, UserRepository userRepository, NotificationService notificationService, UserService userService) {
         this.commentRepository = commentRepository;
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.userService = userService;
     }
 
     /**
@@ -75,11 +75,8 @@ public class CommentService {
      */
     @Transactional
     public CommentDTO updateComment(Long commentId, CommentDTO commentDTO) {
-        // Get the current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        User currentUser = userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        // Get the current authenticated user (resolved once per request)
+        User currentUser = userService.getCurrentlyAuthenticatedUser();
 
         // Find the comment
         Comment comment = commentRepository.findById(commentId)
@@ -101,11 +98,8 @@ public class CommentService {
      */
     @Transactional
     public void deleteComment(Long commentId) {
-        // Get the current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        User currentUser = userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        // Get the current authenticated user (resolved once per request)
+        User currentUser = userService.getCurrentlyAuthenticatedUser();
 
         // Find the comment
         Comment comment = commentRepository.findById(commentId)
@@ -0,0 +1,73 @@
+package org.polythec.projecthubbe.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.polythec.projecthubbe.storage.BlobStore;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Produces the fixed-size renditions of uploaded profile pictures on a small bounded pool.
+ * Lists such as comment threads and project members then load a thumbnail instead of the
+ * original upload. Work that does not fit in the queue is dropped: the user simply keeps
+ * the original picture until the next upload.
+ */
+@Service
+@Slf4j
+public class ImageDerivativeService implements DisposableBean {
+
+    private final BlobStore blobStore;
+    private final UserService userService;
+    private final ThreadPoolExecutor executor;
+
+    @Value("${app.images.derivative-sizes:32,128}")
+    private int[] derivativeSizes;
+
+    @Value("${app.images.thumbnail-size:32}")
+    private int thumbnailSize;
+
+    public ImageDerivativeService(BlobStore blobStore, UserService userService,
+                                  @Value("${app.images.threads:2}") int threads,
+                                  @Value("${app.images.queue-capacity:64}") int queueCapacity) {
+        this.blobStore = blobStore;
+        this.userService = userService;
+        this.executor = BoundedExecutors.create("image-derivative", threads, queueCapacity);
+    }
+
+    /**
+     * Queues the derivatives of a newly stored profile picture.
+     */
+    public void profilePictureStored(String email, String key) {
+        try {
+            executor.execute(() -> generate(email, key));
+        } catch (RejectedExecutionException e) {
+            log.warn("Derivative queue full, skipping thumbnails for {}", key);
+        }
+    }
+
+    private void generate(String email, String key) {
+        try {
+            String thumbnailUrl = null;
+            for (int size : derivativeSizes) {
+                String url = blobStore.createDerivative(key, size);
+                if (size == thumbnailSize) {
+                    thumbnailUrl = url;
+                }
+            }
+            if (thumbnailUrl == null) {
+                thumbnailUrl = blobStore.createDerivative(key, thumbnailSize);
+            }
+            userService.updateProfilePictureThumbnail(email, key, thumbnailUrl);
+        } catch (Exception e) {
+            log.warn("Could not create derivatives for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
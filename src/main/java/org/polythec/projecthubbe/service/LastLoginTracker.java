@@ -0,0 +1,87 @@
+package org.polythec.projecthubbe.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind recorder for user login timestamps.
+ * Logins are kept in memory and written periodically with a single UPDATE,
+ * so the login request itself never waits on a database write.
+ */
+@Component
+@Slf4j
+public class LastLoginTracker {
+
+    private static final String FLUSH_SQL =
+            "UPDATE users u SET last_login = v.last_login " +
+            "FROM unnest(?::varchar[], ?::timestamp[]) AS v(id, last_login) " +
+            "WHERE u.id = v.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // userId -> most recent login not yet written
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LastLoginTracker(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void recordLogin(String userId) {
+        pending.put(userId, LocalDateTime.now());
+    }
+
+    /**
+     * Writes every pending login timestamp in one statement.
+     * Entries that fail to write are put back, unless a newer login arrived meanwhile.
+     */
+    @Scheduled(fixedDelayString = "${app.last-login.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<String> ids = new ArrayList<>();
+        List<Timestamp> timestamps = new ArrayList<>();
+        for (Map.Entry<String, LocalDateTime> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                ids.add(entry.getKey());
+                timestamps.add(Timestamp.valueOf(entry.getValue()));
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        try {
+            int updated = jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(FLUSH_SQL);
+                ps.setArray(1, con.createArrayOf("varchar", ids.toArray()));
+                ps.setArray(2, con.createArrayOf("timestamp", timestamps.toArray()));
+                return ps;
+            });
+            log.debug("Flushed {} last-login timestamps ({} rows updated)", ids.size(), updated);
+        } catch (DataAccessException e) {
+            log.warn("Failed to flush {} last-login timestamps, will retry", ids.size(), e);
+            for (int i = 0; i < ids.size(); i++) {
+                pending.putIfAbsent(ids.get(i), timestamps.get(i).toLocalDateTime());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,166 @@
+package org.polythec.projecthubbe.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.polythec.projecthubbe.dto.ProjectDeletionJobDTO;
+import org.polythec.projecthubbe.exception.ServiceBusyException;
+import org.polythec.projecthubbe.repository.ProjectMemberRepository;
+import org.polythec.projecthubbe.repository.ProjetRepository;
+import org.polythec.projecthubbe.repository.TaskRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Deletes a project and everything hanging off it with set-based DELETE statements instead of loading every task.
+ * <p>
+ * Projects up to {@code app.projects.deletion.background-threshold} tasks are removed in one short transaction.
+ * Larger ones are removed in the background, one chunk of tasks per transaction, with progress that can be polled
+ * and is also pushed to {@code /topic/project-deletions/{userId}}.
+ */
+@Service
+@Slf4j
+public class ProjectDeletionService implements DisposableBean {
+
+    private final TaskRepository taskRepository;
+    private final ProjectMemberRepository projectMemberRepository;
+    private final ProjetRepository projetRepository;
+    private final ProjectSummaryService projectSummaryService;
+    private final ProjectMembershipIndex projectMembershipIndex;
+    private final ProjectNameIndex projectNameIndex;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, ProjectDeletionJobDTO> jobs;
+
+    @Value("${app.projects.deletion.background-threshold:5000}")
+    private long backgroundThreshold;
+
+    @Value("${app.projects.deletion.chunk-size:1000}")
+    private int chunkSize;
+
+    public ProjectDeletionService(TaskRepository taskRepository, ProjectMemberRepository projectMemberRepository,
+                                  ProjetRepository projetRepository, ProjectSummaryService projectSummaryService,
+                                  ProjectMembershipIndex projectMembershipIndex, ProjectNameIndex projectNameIndex,
+                                  SimpMessagingTemplate messagingTemplate, PlatformTransactionManager transactionManager,
+                                  @Value("${app.projects.deletion.queue-capacity:16}") int queueCapacity) {
+        this.taskRepository = taskRepository;
+        this.projectMemberRepository = projectMemberRepository;
+        this.projetRepository = projetRepository;
+        this.projectSummaryService = projectSummaryService;
+        this.projectMembershipIndex = projectMembershipIndex;
+        this.projectNameIndex = projectNameIndex;
+        this.messagingTemplate = messagingTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofHours(1))
+                .build();
+
+        // A single worker: chunked deletes of different projects would only compete for the same tables
+        this.executor = BoundedExecutors.create("project-deletion", 1, queueCapacity);
+    }
+
+    /**
+     * Deletes the project right away, or queues a background job when it has too many tasks.
+     * Callers are expected to have checked ownership.
+     *
+     * @return the queued job, or {@code null} if the project is already gone
+     * @throws ServiceBusyException if too many deletions are already queued
+     */
+    public ProjectDeletionJobDTO delete(Long projectId, String userId) {
+        long taskCount = taskRepository.countByProjectIdprojet(projectId);
+        if (taskCount <= backgroundThreshold) {
+            transactionTemplate.executeWithoutResult(status -> deleteAll(projectId));
+            projectSummaryService.evict(projectId);
+            return null;
+        }
+
+        ProjectDeletionJobDTO job = new ProjectDeletionJobDTO();
+        job.setId(UUID.randomUUID().toString());
+        job.setProjectId(projectId);
+        job.setUserId(userId);
+        job.setTotalTasks(taskCount);
+        job.setStatus(ProjectDeletionJobDTO.Status.QUEUED);
+        job.setUpdatedAt(LocalDateTime.now());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            throw new ServiceBusyException("Too many project deletions in progress, try again later", 30);
+        }
+        return job;
+    }
+
+    public ProjectDeletionJobDTO getJob(String jobId) {
+        return jobs.getIfPresent(jobId);
+    }
+
+    private void deleteAll(Long projectId) {
+        // Join tables and comments first, then tasks, members and the project itself
+        taskRepository.deleteAssigneesByProject(projectId);
+        taskRepository.deleteTaskPrioritiesByProject(projectId);
+        taskRepository.deleteCommentsByProject(projectId);
+        taskRepository.deleteAllByProject(projectId);
+        projectMemberRepository.deleteAllByProject(projectId);
+        projetRepository.deleteByIdNative(projectId);
+        projectMembershipIndex.projectDeleted(projectId);
+        projectNameIndex.remove(projectId);
+    }
+
+    private void run(ProjectDeletionJobDTO job) {
+        Long projectId = job.getProjectId();
+        try {
+            update(job, ProjectDeletionJobDTO.Status.RUNNING, null);
+            while (true) {
+                Integer deleted = transactionTemplate.execute(status -> deleteChunk(projectId));
+                if (deleted == null || deleted == 0) {
+                    break;
+                }
+                job.setDeletedTasks(job.getDeletedTasks() + deleted);
+                update(job, ProjectDeletionJobDTO.Status.RUNNING, null);
+            }
+            // Tasks created while the job ran are picked up by the final set-based pass
+            transactionTemplate.executeWithoutResult(status -> deleteAll(projectId));
+            projectSummaryService.evict(projectId);
+            update(job, ProjectDeletionJobDTO.Status.SUCCEEDED, null);
+        } catch (RuntimeException e) {
+            log.warn("Deletion of project {} failed after {} tasks", projectId, job.getDeletedTasks(), e);
+            update(job, ProjectDeletionJobDTO.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private int deleteChunk(Long projectId) {
+        List<Long> taskIds = taskRepository.findIdBatchByProject(projectId, chunkSize);
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        taskRepository.deleteAssigneesByTaskIds(taskIds);
+        taskRepository.deleteTaskPrioritiesByTaskIds(taskIds);
+        taskRepository.deleteCommentsByTaskIds(taskIds);
+        return taskRepository.deleteByIds(taskIds);
+    }
+
+    private void update(ProjectDeletionJobDTO job, ProjectDeletionJobDTO.Status status, String error) {
+        job.setStatus(status);
+        job.setError(error);
+        job.setUpdatedAt(LocalDateTime.now());
+        messagingTemplate.convertAndSend("/topic/project-deletions/" + job.getUserId(), job);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
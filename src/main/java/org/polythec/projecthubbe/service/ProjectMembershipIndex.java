@@ -0,0 +1,164 @@
+package org.polythec.projecthubbe.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.polythec.projecthubbe.config.CacheConfig;
+import org.polythec.projecthubbe.repository.ProjectMemberRepository;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * Answers "is this user a member of that project, and with which role" without a database round trip.
+ * <p>
+ * Each user's memberships are loaded with one query on first use and kept as a sorted array of project ids
+ * with a parallel array of roles. Membership changes are applied to loaded entries after their transaction
+ * commits; the cache TTL is only a safety net for changes made outside this service.
+ * <p>
+ * Entries can be stale (another node, bulk statements), so they only serve reads. Writes and permission
+ * checks go through {@link #confirmedRoleOf}, which asks the database.
+ */
+@Service
+public class ProjectMembershipIndex {
+
+    private final ProjectMemberRepository projectMemberRepository;
+    private final Cache<Object, Object> memberships;
+
+    @SuppressWarnings("unchecked")
+    public ProjectMembershipIndex(ProjectMemberRepository projectMemberRepository, CacheManager cacheManager) {
+        this.projectMemberRepository = projectMemberRepository;
+        this.memberships = ((CaffeineCache) cacheManager.getCache(CacheConfig.PROJECT_MEMBERSHIPS)).getNativeCache();
+    }
+
+    public boolean isMember(Long projectId, String userId) {
+        return roleOf(projectId, userId).isPresent();
+    }
+
+    /**
+     * @return the user's role in the project, or empty if they are not a member
+     */
+    public Optional<String> roleOf(Long projectId, String userId) {
+        if (projectId == null || userId == null) {
+            return Optional.empty();
+        }
+        Memberships entry = (Memberships) memberships.get(userId, this::load);
+        return Optional.ofNullable(entry.roleOf(projectId));
+    }
+
+    /**
+     * The user's role as currently stored, for decisions that must not rest on a stale entry.
+     * A loaded entry that disagrees is dropped so the next read reloads it.
+     */
+    public Optional<String> confirmedRoleOf(Long projectId, String userId) {
+        if (projectId == null || userId == null) {
+            return Optional.empty();
+        }
+        Optional<String> role = projectMemberRepository.findRole(projectId, userId);
+        Memberships cached = (Memberships) memberships.getIfPresent(userId);
+        if (cached != null && !Objects.equals(cached.roleOf(projectId), role.orElse(null))) {
+            memberships.invalidate(userId);
+        }
+        return role;
+    }
+
+    /**
+     * Sorted ids of the projects the user belongs to.
+     */
+    public long[] projectIdsOf(String userId) {
+        if (userId == null) {
+            return new long[0];
+        }
+        Memberships entry = (Memberships) memberships.get(userId, this::load);
+        return entry.projectIds.clone();
+    }
+
+    public void memberAdded(Long projectId, String userId, String role) {
+        afterCommit(userId, entry -> entry.with(projectId, role));
+    }
+
+    public void memberRemoved(Long projectId, String userId) {
+        afterCommit(userId, entry -> entry.without(projectId));
+    }
+
+    /**
+     * Drops the project from every loaded entry. Rare enough that scanning the cache is cheaper than
+     * looking up who the members were.
+     */
+    public void projectDeleted(Long projectId) {
+        AfterCommit.run(() -> memberships.asMap().replaceAll((userId, entry) -> ((Memberships) entry).without(projectId)));
+    }
+
+    private Memberships load(Object userId) {
+        List<ProjectMemberRepository.MembershipView> rows = projectMemberRepository.findMembershipsByUser((String) userId);
+        long[] projectIds = new long[rows.size()];
+        String[] roles = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            projectIds[i] = rows.get(i).getProjectId();
+            roles[i] = rows.get(i).getRole().intern();
+        }
+        // Rows come ordered by project id, so the arrays are ready for binary search
+        return new Memberships(projectIds, roles);
+    }
+
+    private void afterCommit(String userId, UnaryOperator<Memberships> change) {
+        // Only entries that are already loaded are patched; the deltas are idempotent, so it does not matter
+        // whether a concurrent load saw the database before or after the commit
+        AfterCommit.run(() -> memberships.asMap().computeIfPresent(userId, (key, entry) -> change.apply((Memberships) entry)));
+    }
+
+    /**
+     * Immutable membership list of one user; updates return a copy.
+     */
+    private static final class Memberships {
+        private final long[] projectIds;
+        private final String[] roles;
+
+        private Memberships(long[] projectIds, String[] roles) {
+            this.projectIds = projectIds;
+            this.roles = roles;
+        }
+
+        String roleOf(long projectId) {
+            int index = Arrays.binarySearch(projectIds, projectId);
+            return index >= 0 ? roles[index] : null;
+        }
+
+        Memberships with(long projectId, String role) {
+            int index = Arrays.binarySearch(projectIds, projectId);
+            if (index >= 0) {
+                String[] newRoles = roles.clone();
+                newRoles[index] = role.intern();
+                return new Memberships(projectIds, newRoles);
+            }
+            int insertAt = -index - 1;
+            long[] newIds = new long[projectIds.length + 1];
+            String[] newRoles = new String[roles.length + 1];
+            System.arraycopy(projectIds, 0, newIds, 0, insertAt);
+            System.arraycopy(roles, 0, newRoles, 0, insertAt);
+            newIds[insertAt] = projectId;
+            newRoles[insertAt] = role.intern();
+            System.arraycopy(projectIds, insertAt, newIds, insertAt + 1, projectIds.length - insertAt);
+            System.arraycopy(roles, insertAt, newRoles, insertAt + 1, roles.length - insertAt);
+            return new Memberships(newIds, newRoles);
+        }
+
+        Memberships without(long projectId) {
+            int index = Arrays.binarySearch(projectIds, projectId);
+            if (index < 0) {
+                return this;
+            }
+            long[] newIds = new long[projectIds.length - 1];
+            String[] newRoles = new String[roles.length - 1];
+            System.arraycopy(projectIds, 0, newIds, 0, index);
+            System.arraycopy(roles, 0, newRoles, 0, index);
+            System.arraycopy(projectIds, index + 1, newIds, index, projectIds.length - index - 1);
+            System.arraycopy(roles, index + 1, newRoles, index, roles.length - index - 1);
+            return new Memberships(newIds, newRoles);
+        }
+    }
+}
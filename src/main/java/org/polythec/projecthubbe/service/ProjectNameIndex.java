@@ -0,0 +1,290 @@
+package org.polythec.projecthubbe.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.polythec.projecthubbe.dto.ProjectSearchHitDTO;
+import org.polythec.projecthubbe.entity.Projet;
+import org.polythec.projecthubbe.repository.ProjetRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over project names for the quick switcher.
+ * <p>
+ * Every name is split into padded character trigrams, each packed into a {@code long}, with a sorted
+ * posting array of project ids per trigram. A query only looks at visible projects sharing a trigram
+ * with it, then ranks them by the edit
+ * distance between the query and the closest substring of the name, so one or two typos still match.
+ */
+@Component
+@Slf4j
+public class ProjectNameIndex {
+
+    private static final int MAX_NAME_LENGTH = 128;
+    private static final long[] NO_IDS = new long[0];
+
+    private final ProjetRepository projetRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, Entry> entries = new HashMap<>();
+    private Map<Long, long[]> postings = new HashMap<>();
+
+    public ProjectNameIndex(ProjetRepository projetRepository) {
+        this.projetRepository = projetRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Long, Entry> newEntries = new HashMap<>();
+        Map<Long, List<Long>> collected = new HashMap<>();
+        for (ProjetRepository.ProjectNameView view : projetRepository.findAllForIndex()) {
+            Entry entry = Entry.of(view.getIdprojet(), view.getNom());
+            newEntries.put(entry.id(), entry);
+            for (long gram : entry.grams()) {
+                collected.computeIfAbsent(gram, g -> new ArrayList<>()).add(entry.id());
+            }
+        }
+        Map<Long, long[]> newPostings = new HashMap<>(collected.size() * 2);
+        collected.forEach((gram, ids) -> newPostings.put(gram, ids.stream().mapToLong(Long::longValue).sorted().toArray()));
+
+        lock.writeLock().lock();
+        try {
+            entries = newEntries;
+            postings = newPostings;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Project name index built with {} projects", newEntries.size());
+    }
+
+    /**
+     * Indexes the project under its current name once the surrounding transaction commits.
+     */
+    public void put(Projet projet) {
+        Entry entry = Entry.of(projet.getIdprojet(), projet.getNom());
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                Entry previous = entries.put(entry.id(), entry);
+                if (previous != null) {
+                    unlink(previous);
+                }
+                for (long gram : entry.grams()) {
+                    postings.put(gram, insert(postings.getOrDefault(gram, NO_IDS), entry.id()));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long projectId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                Entry previous = entries.remove(projectId);
+                if (previous != null) {
+                    unlink(previous);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} of the given projects whose name matches the query, best first.
+     *
+     * @param visibleProjectIds sorted ids of the projects the caller may see
+     */
+    public List<ProjectSearchHitDTO> search(String query, long[] visibleProjectIds, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0 || visibleProjectIds.length == 0) {
+            return List.of();
+        }
+        int maxTypos = normalized.length() < 3 ? 0 : normalized.length() <= 6 ? 1 : 2;
+        long[] queryGrams = grams(normalized, false);
+
+        lock.readLock().lock();
+        try {
+            List<Hit> hits = new ArrayList<>();
+            for (long id : candidates(queryGrams, visibleProjectIds)) {
+                Entry entry = entries.get(id);
+                if (entry == null) {
+                    continue;
+                }
+                int typos = substringDistance(normalized, entry.normalized(), maxTypos);
+                if (typos <= maxTypos) {
+                    hits.add(new Hit(entry, typos));
+                }
+            }
+            hits.sort(Comparator.comparingInt(Hit::typos)
+                    .thenComparing(hit -> !hit.entry().normalized().startsWith(normalized))
+                    .thenComparingInt(hit -> hit.entry().normalized().length())
+                    .thenComparingLong(hit -> hit.entry().id()));
+
+            List<ProjectSearchHitDTO> results = new ArrayList<>(Math.min(limit, hits.size()));
+            for (Hit hit : hits.subList(0, Math.min(limit, hits.size()))) {
+                results.add(new ProjectSearchHitDTO(hit.entry().id(), hit.entry().name(), hit.typos()));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visible projects sharing at least one trigram with the query, walking whichever side is smaller.
+     */
+    private long[] candidates(long[] queryGrams, long[] visible) {
+        if (queryGrams.length == 0) {
+            return visible;
+        }
+        long postingTotal = 0;
+        for (long gram : queryGrams) {
+            postingTotal += postings.getOrDefault(gram, NO_IDS).length;
+        }
+        if (visible.length <= postingTotal) {
+            // Typical case: a user sees far fewer projects than share a common trigram
+            return Arrays.stream(visible)
+                    .filter(id -> {
+                        Entry entry = entries.get(id);
+                        return entry != null && sharesGram(entry.grams(), queryGrams);
+                    })
+                    .toArray();
+        }
+        Set<Long> ids = new HashSet<>();
+        for (long gram : queryGrams) {
+            for (long id : postings.getOrDefault(gram, NO_IDS)) {
+                if (Arrays.binarySearch(visible, id) >= 0) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private void unlink(Entry entry) {
+        for (long gram : entry.grams()) {
+            long[] ids = remove(postings.getOrDefault(gram, NO_IDS), entry.id());
+            if (ids.length == 0) {
+                postings.remove(gram);
+            } else {
+                postings.put(gram, ids);
+            }
+        }
+    }
+
+    private static boolean sharesGram(long[] sortedA, long[] sortedB) {
+        int i = 0;
+        int j = 0;
+        while (i < sortedA.length && j < sortedB.length) {
+            if (sortedA[i] == sortedB[j]) {
+                return true;
+            }
+            if (sortedA[i] < sortedB[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Smallest edit distance between the query and any substring of the text (Sellers' algorithm),
+     * capped at {@code bound + 1}.
+     */
+    private static int substringDistance(String query, String text, int bound) {
+        int m = query.length();
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        int best = previous[m];
+        for (int j = 1; j <= text.length(); j++) {
+            // A match may start anywhere in the text, so the first row stays at zero
+            current[0] = 0;
+            char c = text.charAt(j - 1);
+            for (int i = 1; i <= m; i++) {
+                int substitution = previous[i - 1] + (query.charAt(i - 1) == c ? 0 : 1);
+                current[i] = Math.min(substitution, Math.min(previous[i], current[i - 1]) + 1);
+            }
+            best = Math.min(best, current[m]);
+            if (best == 0) {
+                return 0;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return best <= bound ? best : bound + 1;
+    }
+
+    private static long[] insert(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return ids;
+        }
+        int insertAt = -index - 1;
+        long[] copy = new long[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, insertAt);
+        copy[insertAt] = id;
+        System.arraycopy(ids, insertAt, copy, insertAt + 1, ids.length - insertAt);
+        return copy;
+    }
+
+    private static long[] remove(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return ids;
+        }
+        long[] copy = new long[ids.length - 1];
+        System.arraycopy(ids, 0, copy, 0, index);
+        System.arraycopy(ids, index + 1, copy, index, ids.length - index - 1);
+        return copy;
+    }
+
+    /**
+     * Distinct, sorted trigrams of every word padded with two leading blanks and one trailing blank.
+     * Queries leave the last word open since the user is usually still typing it.
+     */
+    private static long[] grams(String normalized, boolean closeLastWord) {
+        String[] words = normalized.split(" ");
+        Set<Long> grams = new TreeSet<>();
+        for (int w = 0; w < words.length; w++) {
+            if (words[w].isEmpty()) {
+                continue;
+            }
+            boolean close = closeLastWord || w < words.length - 1;
+            String padded = "  " + words[w] + (close ? " " : "");
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+            }
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return normalized.length() > MAX_NAME_LENGTH ? normalized.substring(0, MAX_NAME_LENGTH) : normalized;
+    }
+
+    private record Entry(long id, String name, String normalized, long[] grams) {
+
+        static Entry of(Long id, String name) {
+            String normalized = normalize(name);
+            // Qualified because the record's own grams() accessor shadows the static helper
+            return new Entry(id, name, normalized, ProjectNameIndex.grams(normalized, true));
+        }
+    }
+
+    private record Hit(Entry entry, int typos) {
+    }
+}
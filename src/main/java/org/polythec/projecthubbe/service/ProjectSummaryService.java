@@ -0,0 +1,107 @@
+package org.polythec.projecthubbe.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.polythec.projecthubbe.config.CacheConfig;
+import org.polythec.projecthubbe.dto.ProjectSummaryDTO;
+import org.polythec.projecthubbe.entity.Status;
+import org.polythec.projecthubbe.repository.ProjetRepository;
+import org.polythec.projecthubbe.repository.StatusRepository;
+import org.polythec.projecthubbe.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Builds and caches the per-project dashboard summary.
+ * Task and member changes call {@link #evict(Long)} so the cached summary never
+ * outlives the data it was computed from.
+ */
+@Service
+public class ProjectSummaryService {
+
+    private static final String UNSET = "None";
+    // Matches no task, used while the completed status does not exist yet
+    private static final long NO_STATUS_ID = -1L;
+
+    private final TaskRepository taskRepository;
+    private final ProjetRepository projetRepository;
+    private final StatusRepository statusRepository;
+    private final Cache projectSummaries;
+    // Tasks in this status are done and never count as overdue
+    private final String completedStatusName;
+    private volatile Long completedStatusId;
+
+    public ProjectSummaryService(TaskRepository taskRepository, ProjetRepository projetRepository,
+                                 StatusRepository statusRepository, CacheManager cacheManager,
+                                 @Value("${app.tasks.completed-status:Done}") String completedStatusName) {
+        this.taskRepository = taskRepository;
+        this.projetRepository = projetRepository;
+        this.statusRepository = statusRepository;
+        this.projectSummaries = cacheManager.getCache(CacheConfig.PROJECT_SUMMARIES);
+        this.completedStatusName = completedStatusName;
+    }
+
+    @Transactional(readOnly = true)
+    public ProjectSummaryDTO getSummary(Long projectId) {
+        ProjectSummaryDTO cached = projectSummaries.get(projectId, ProjectSummaryDTO.class);
+        if (cached != null) {
+            return cached;
+        }
+        if (!projetRepository.existsById(projectId)) {
+            throw new EntityNotFoundException("Project not found with id: " + projectId);
+        }
+
+        ProjectSummaryDTO summary = new ProjectSummaryDTO();
+        summary.setProjectId(projectId);
+        for (TaskRepository.ProjectTaskAggregate row : taskRepository.aggregateByProject(projectId, completedStatusId())) {
+            boolean byStatus = row.getStatusRollup() == 0;
+            boolean byPriority = row.getPriorityRollup() == 0;
+            if (byStatus) {
+                summary.getTasksByStatus().put(nameOrUnset(row.getStatusName()), row.getTaskCount());
+            } else if (byPriority) {
+                summary.getTasksByPriority().put(nameOrUnset(row.getPriorityName()), row.getTaskCount());
+            } else {
+                // Grand total row of the empty grouping set; present even for a project without tasks
+                summary.setTotalTasks(row.getTaskCount());
+                summary.setOverdueTasks(row.getOverdueCount());
+                summary.setNextDeadline(row.getNextDeadline());
+                summary.setMemberCount(row.getMemberCount());
+            }
+        }
+        projectSummaries.put(projectId, summary);
+        return summary;
+    }
+
+    /**
+     * Drops the cached summary now and again after the surrounding transaction commits,
+     * so a concurrent read cannot cache the pre-commit state.
+     */
+    public void evict(Long projectId) {
+        if (projectId == null) {
+            return;
+        }
+        AfterCommit.runNowAndAfterCommit(() -> projectSummaries.evict(projectId));
+    }
+
+    /**
+     * Status ids differ between databases, so the completed status is looked up by name.
+     * It is remembered once found; until then it is looked up again on every summary.
+     */
+    private long completedStatusId() {
+        Long id = completedStatusId;
+        if (id == null) {
+            id = statusRepository.findByNameIgnoreCase(completedStatusName).map(Status::getId).orElse(null);
+            if (id == null) {
+                return NO_STATUS_ID;
+            }
+            completedStatusId = id;
+        }
+        return id;
+    }
+
+    private static String nameOrUnset(String name) {
+        return name != null ? name : UNSET;
+    }
+}
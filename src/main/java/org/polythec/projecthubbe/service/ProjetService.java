@@ -2,38 +2,59 @@ package org.polythec.projecthubbe.service;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.polythec.projecthubbe.dto.MemberAdditionDTO;
+import org.polythec.projecthubbe.dto.MemberBatchResultDTO;
+import org.polythec.projecthubbe.dto.ProjectDeletionJobDTO;
+import org.polythec.projecthubbe.dto.ProjectMemberDTO;
+import org.polythec.projecthubbe.dto.ProjectSearchHitDTO;
 import org.polythec.projecthubbe.dto.ProjetDTO;
 import org.polythec.projecthubbe.dto.UserSummaryDTO;
 import org.polythec.projecthubbe.entity.ProjectMember;
 import org.polythec.projecthubbe.entity.Projet;
-import org.polythec.projecthubbe.entity.Task;
 import org.polythec.projecthubbe.entity.User;
+import org.polythec.projecthubbe.exception.PreconditionFailedException;
 import org.polythec.projecthubbe.repository.ProjectMemberRepository;
 import org.polythec.projecthubbe.repository.ProjetRepository;
 import org.polythec.projecthubbe.repository.TaskRepository;
 import org.polythec.projecthubbe.repository.UserRepository;
-import org.polythec.projecthubbe.service.impl.UserServiceImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProjetService {
 
+    private static final String INSERT_MEMBER_SQL =
+            "INSERT INTO project_members (project_id, user_id, role) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
     private final ProjetRepository projetRepository;
     private final UserRepository userRepository;
     private final ProjectMemberRepository projectMemberRepository;
     private final TaskRepository taskRepository;
-    private final UserServiceImpl userService;
+    private final UserDirectory userDirectory;
+    private final ProjectSummaryService projectSummaryService;
+    private final ProjectDeletionService projectDeletionService;
+    private final ProjectMembershipIndex projectMembershipIndex;
+    private final ProjectNameIndex projectNameIndex;
+    private final JdbcTemplate jdbcTemplate;
 
     public Projet createProject(Projet projet) {
         Projet savedProjet = projetRepository.save(projet);
+        projectNameIndex.put(savedProjet);
         // Add owner as a member with admin role
         addUserToProject(savedProjet.getIdprojet(), savedProjet.getOwner().getId(), "Admin");
         return savedProjet;
@@ -41,27 +62,106 @@ public class ProjetService {
 
     @Transactional
     public void addUserToProject(Long projectId, String userId, String role) {
+        // Check if the user is already a member
+        if (projectMembershipIndex.confirmedRoleOf(projectId, userId).isPresent()) {
+            return;
+        }
+
         Projet projet = projetRepository.findById(projectId)
                 .orElseThrow(() -> new EntityNotFoundException("Project not found"));
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("User not found"));
 
-        // Check if the user is already a member
-        boolean isAlreadyMember = projectMemberRepository.existsByProjectIdprojetAndUserId(projectId, userId);
-
-        if (!isAlreadyMember) {
-            ProjectMember projectMember = new ProjectMember();
-            projectMember.setProject(projet);
-            projectMember.setUser(user);
-            projectMember.setRole(role);
-            projectMemberRepository.save(projectMember);
+        ProjectMember projectMember = new ProjectMember();
+        projectMember.setProject(projet);
+        projectMember.setUser(user);
+        projectMember.setRole(role);
+        projectMemberRepository.save(projectMember);
+        projectMembershipIndex.memberAdded(projectId, userId, role);
+        projectSummaryService.evict(projectId);
+    }
+
+    /**
+     * Adds many users at once: one query validates the ids, one finds existing members, and the rest
+     * are inserted in a single JDBC batch. Unknown users and existing members are reported, not failed.
+     *
+     * @throws AccessDeniedException unless the current user owns the project or is one of its admins
+     */
+    @Transactional
+    public MemberBatchResultDTO addUsersToProject(Long projectId, List<MemberAdditionDTO> additions, String currentUserId) {
+        String ownerId = projetRepository.findOwnerIdById(projectId)
+                .orElseThrow(() -> new EntityNotFoundException("Project not found"));
+        if (!ownerId.equals(currentUserId)) {
+            Optional<String> role = projectMembershipIndex.confirmedRoleOf(projectId, currentUserId);
+            if (role.isEmpty() || !role.get().equalsIgnoreCase("Admin")) {
+                throw new AccessDeniedException("Only project owners or admins can add members");
+            }
+        }
+
+        // The first entry wins when a user is listed twice
+        Map<String, String> rolesByUser = new LinkedHashMap<>();
+        for (MemberAdditionDTO addition : additions) {
+            if (addition.getUserId() == null || addition.getRole() == null || addition.getRole().isBlank()) {
+                throw new IllegalArgumentException("Every entry needs a userId and a role");
+            }
+            rolesByUser.putIfAbsent(addition.getUserId(), addition.getRole());
+        }
+
+        MemberBatchResultDTO result = new MemberBatchResultDTO();
+        if (rolesByUser.isEmpty()) {
+            return result;
+        }
+        Set<String> knownUsers = new HashSet<>(userRepository.findExistingIds(rolesByUser.keySet()));
+        Set<String> existingMembers = new HashSet<>(projectMemberRepository.findMemberUserIds(projectId, rolesByUser.keySet()));
+
+        List<Map.Entry<String, String>> toInsert = new ArrayList<>();
+        for (Map.Entry<String, String> entry : rolesByUser.entrySet()) {
+            if (!knownUsers.contains(entry.getKey())) {
+                result.getUnknownUsers().add(entry.getKey());
+            } else if (existingMembers.contains(entry.getKey())) {
+                result.getAlreadyMembers().add(entry.getKey());
+            } else {
+                toInsert.add(entry);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return result;
+        }
+
+        // ON CONFLICT covers a concurrent add of the same user between the check and the insert;
+        // such rows report an update count of 0 and are listed as existing members instead
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_MEMBER_SQL, toInsert, toInsert.size(), (ps, entry) -> {
+            ps.setLong(1, projectId);
+            ps.setString(2, entry.getKey());
+            ps.setString(3, entry.getValue());
+        })[0];
+        for (int i = 0; i < toInsert.size(); i++) {
+            Map.Entry<String, String> entry = toInsert.get(i);
+            // SUCCESS_NO_INFO only appears with rewritten batches; the row is there either way
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                projectMembershipIndex.memberAdded(projectId, entry.getKey(), entry.getValue());
+                result.getAdded().add(entry.getKey());
+            } else {
+                result.getAlreadyMembers().add(entry.getKey());
+            }
         }
+        if (!result.getAdded().isEmpty()) {
+            projectSummaryService.evict(projectId);
+        }
+        return result;
     }
 
-    public Projet updateProject(Long id, Projet projetDetails) {
+    /**
+     * @param expectedVersion version the client last read, or {@code null} for an unconditional update
+     * @throws PreconditionFailedException if the project changed since that version
+     */
+    public Projet updateProject(Long id, Projet projetDetails, Long expectedVersion) {
         return projetRepository.findById(id)
                 .map(projet -> {
+                    if (expectedVersion != null && expectedVersion != projet.getVersion()) {
+                        throw new PreconditionFailedException("Project was modified by someone else");
+                    }
                     if (projetDetails.getNom() != null) {
                         projet.setNom(projetDetails.getNom());
                     }
@@ -69,24 +169,41 @@ public class ProjetService {
                         projet.setDescription(projetDetails.getDescription());
                     }
                     // Update other fields as needed
-                    return projetRepository.save(projet);
+                    // Flushed so the returned version, used as the next ETag, is the one written
+                    Projet saved = projetRepository.saveAndFlush(projet);
+                    projectNameIndex.put(saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new EntityNotFoundException("Project not found with id: " + id));
     }
 
-    public List<Projet> getAllProjects() {
-        return projetRepository.findAll();
+    /**
+     * Returns up to {@code limit} projects with an id greater than {@code afterId}, in id order.
+     */
+    public List<ProjetDTO> getProjectsPage(long afterId, int limit, String ownerId, String memberId) {
+        return projetRepository.findPageAfter(afterId, ownerId, memberId, PageRequest.of(0, limit));
     }
 
     public List<ProjetDTO> getProjectsByOwner(String userId) {
         List<Projet> projects = projetRepository.findByOwnerId(userId);
 
+        return convertToDTOs(projects);
+    }
+
+    // Owners are resolved in one batch; reading the id of a lazy owner does not load it
+    private List<ProjetDTO> convertToDTOs(List<Projet> projects) {
+        Map<String, UserSummaryDTO> owners = userDirectory.resolve(projects.stream()
+                .map(Projet::getOwner)
+                .filter(Objects::nonNull)
+                .map(User::getId)
+                .collect(Collectors.toSet()));
+
         return projects.stream()
-                .map(this::convertToDTO)
+                .map(projet -> convertToDTO(projet, owners))
                 .collect(Collectors.toList());
     }
 
-    private ProjetDTO convertToDTO(Projet projet) {
+    private ProjetDTO convertToDTO(Projet projet, Map<String, UserSummaryDTO> owners) {
         ProjetDTO dto = new ProjetDTO();
         dto.setIdprojet(projet.getIdprojet());
         dto.setNom(projet.getNom());
@@ -94,9 +211,7 @@ public class ProjetService {
         dto.setCreatedDate(projet.getCreatedDate());
 
         User user = projet.getOwner();
-        UserSummaryDTO userSummaryDTO = userService.mapToSDTO(user);
-
-        dto.setOwner(userSummaryDTO);
+        dto.setOwner(user != null ? owners.get(user.getId()) : null);
         return dto;
     }
 
@@ -114,55 +229,52 @@ public class ProjetService {
 
     public void deleteProject(Long id) {
         projetRepository.deleteById(id);
+        projectNameIndex.remove(id);
     }
 
-    @Transactional
-    public void deleteProjectWithRelatedData(Long projectId, String currentUserId) {
-        // Fetch the project
-        Projet project = projetRepository.findById(projectId)
+    /**
+     * Deletes the project with its tasks, comments and members.
+     *
+     * @return the background job for very large projects, or {@code null} once the project is gone
+     */
+    public ProjectDeletionJobDTO deleteProjectWithRelatedData(Long projectId, String currentUserId) {
+        String ownerId = projetRepository.findOwnerIdById(projectId)
                 .orElseThrow(() -> new EntityNotFoundException("Project not found with id: " + projectId));
 
         // Check if the current user is the project owner
-        if (!project.getOwner().getId().equals(currentUserId)) {
+        if (!ownerId.equals(currentUserId)) {
             throw new AccessDeniedException("Only the project owner can delete this project");
         }
 
-        // Delete all tasks associated with this project
-        List<Task> tasks = taskRepository.findByProjectIdprojet(projectId);
-        if (!tasks.isEmpty()) {
-            // For each task, clear associations first
-            for (Task task : tasks) {
-                // Clear assignees for each task before deleting
-                task.getAssignees().clear();
-                task.getPriorities().clear();
-                task.setStatus(null);
-                taskRepository.save(task);
-            }
-            taskRepository.deleteAll(tasks);
-        }
-
-        // Delete all project members
-        List<ProjectMember> members = projectMemberRepository.findByProjectIdprojet(projectId);
-
-
-        // Finally delete the project
-        projetRepository.deleteById(projectId);
+        return projectDeletionService.delete(projectId, currentUserId);
     }
 
-    public List<ProjectMember> getMembersByProjectId(Long projectId) {
-        return projectMemberRepository.findByProjectIdprojet(projectId);
+    public List<ProjectMemberDTO> getMembersByProjectId(Long projectId) {
+        return projectMemberRepository.findMemberDTOsByProject(projectId);
     }
 
-    public void deleteMemberFromProject(Long projectId, String userId) {
+    /**
+     * Removes the member and unassigns them from every task of the project.
+     *
+     * @return the number of task assignments removed
+     */
+    @Transactional
+    public int deleteMemberFromProject(Long projectId, String userId) {
         ProjectMember member = projectMemberRepository.findByProjectIdprojetAndUserId(projectId, userId)
                 .orElseThrow(() -> new EntityNotFoundException("Member not found in this project"));
-        List<Task> tasks = taskRepository.findByProjectIdprojet(projectId);
-        for (Task task : tasks) {
-            if (task.getAssignees().removeIf(assignee -> assignee.getId().equals(userId))) {
-                taskRepository.save(task); // Save only if an assignee was actually removed
-            }
-        }
         projectMemberRepository.delete(member);
+        // One statement on the join table instead of loading and saving every task
+        int removedAssignments = taskRepository.deleteAssigneeFromProject(projectId, userId);
+        projectMembershipIndex.memberRemoved(projectId, userId);
+        projectSummaryService.evict(projectId);
+        return removedAssignments;
+    }
+
+    /**
+     * Typo-tolerant name search over the projects the user is a member of, answered from memory.
+     */
+    public List<ProjectSearchHitDTO> quickSearch(String userId, String query, int limit) {
+        return projectNameIndex.search(query, projectMembershipIndex.projectIdsOf(userId), limit);
     }
 
     public Optional<Projet> getProjectById(Long id) {
@@ -170,14 +282,6 @@ public class ProjetService {
     }
 
     public List<ProjetDTO> getProjectsByMember(String userId) {
-        List<ProjectMember> memberships = projectMemberRepository.findByUserId(userId);
-
-        List<ProjetDTO> projects = new ArrayList<>();
-        for (ProjectMember membership : memberships) {
-            Projet projet = membership.getProject();
-            projects.add(convertToDTO(projet));
-        }
-
-        return projects;
+        return projectMemberRepository.findProjectDTOsByMember(userId);
     }
 }
\ No newline at end of file
@@ -2,16 +2,24 @@ package org.polythec.projecthubbe.service;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.polythec.projecthubbe.dto.CommentDTO;
+import org.polythec.projecthubbe.dto.TaskDTO;
 import org.polythec.projecthubbe.entity.*;
+import org.polythec.projecthubbe.exception.PreconditionFailedException;
 import org.polythec.projecthubbe.repository.*;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -23,7 +31,9 @@ public class TaskService {
     private final StatusRepository statusRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
-    private final ProjectMemberRepository projectMemberRepository;
+    private final ProjectMembershipIndex projectMembershipIndex;
+    private final ProjectSummaryService projectSummaryService;
+    private final CommentRepository commentRepository;
 
     public Task createTask(Task task, Long priorityId, Long statusId) {
         if (priorityId != null) {
@@ -39,21 +49,65 @@ public class TaskService {
             task.setStatus(status);
         }
 
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        projectSummaryService.evict(projectIdOf(saved));
+        return saved;
     }
 
     public List<Task> getTasksByProject(Long projectId) {
         return taskRepository.findByProjectIdprojet(projectId);
     }
 
+    /**
+     * The project's task board in a fixed number of queries: tasks with their project, status, priority
+     * and assignees, then either the comment counts or, when asked for, every comment with its author.
+     */
+    @Transactional(readOnly = true)
+    public List<TaskDTO> getTaskBoard(Long projectId, boolean includeComments) {
+        List<Task> tasks = taskRepository.findBoardByProject(projectId);
+        if (tasks.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Set<CommentDTO>> commentsByTask = new HashMap<>();
+        Map<Long, Long> countsByTask = new HashMap<>();
+        if (includeComments) {
+            for (Comment comment : commentRepository.findByProjectWithUser(projectId)) {
+                commentsByTask.computeIfAbsent(comment.getTask().getId(), id -> new LinkedHashSet<>())
+                        .add(new CommentDTO(comment));
+            }
+            commentsByTask.forEach((taskId, comments) -> countsByTask.put(taskId, (long) comments.size()));
+        } else {
+            for (CommentRepository.TaskCommentCount row : commentRepository.countByProject(projectId)) {
+                countsByTask.put(row.getTaskId(), row.getCommentCount());
+            }
+        }
+
+        List<TaskDTO> board = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            Set<CommentDTO> comments = includeComments
+                    ? commentsByTask.getOrDefault(task.getId(), Set.of())
+                    : null;
+            board.add(new TaskDTO(task, countsByTask.getOrDefault(task.getId(), 0L), comments));
+        }
+        return board;
+    }
+
     public Optional<Task> getTaskById(Long id) {
         return taskRepository.findById(id);
     }
 
-    public Task updateTask(Long id, Task updatedTask, Long priorityId, Long statusId) {
+    /**
+     * @param expectedVersion version the client last read, or {@code null} for an unconditional update
+     * @throws PreconditionFailedException if the task changed since that version
+     */
+    public Task updateTask(Long id, Task updatedTask, Long priorityId, Long statusId, Long expectedVersion) {
         Optional<Task> existingTask = taskRepository.findById(id);
         if (existingTask.isPresent()) {
             Task task = existingTask.get();
+            if (expectedVersion != null && expectedVersion != task.getVersion()) {
+                throw new PreconditionFailedException("Task was modified by someone else");
+            }
 
             if (updatedTask.getTitle() != null) task.setTitle(updatedTask.getTitle());
             if (updatedTask.getType() != null) task.setType(updatedTask.getType());
@@ -81,7 +135,10 @@ public class TaskService {
             }
 
 
-            return taskRepository.save(task);
+            // Flushed so the returned version, used as the next ETag, is the one written
+            Task saved = taskRepository.saveAndFlush(task);
+            projectSummaryService.evict(projectIdOf(saved));
+            return saved;
         }
         throw new IllegalArgumentException("Task not found");
     }
@@ -96,10 +153,9 @@ public class TaskService {
         Projet project = task.getProject();
         if (!Objects.equals(project.getOwner().getId(), currentUserId)) {
             // Check if user is an admin of the project
-            Optional<ProjectMember> memberOptional = projectMemberRepository
-                    .findByProjectIdprojetAndUserId(project.getIdprojet(), currentUserId);
+            Optional<String> role = projectMembershipIndex.confirmedRoleOf(project.getIdprojet(), currentUserId);
 
-            if (memberOptional.isEmpty() || !memberOptional.get().getRole().equalsIgnoreCase("Admin")) {
+            if (role.isEmpty() || !role.get().equalsIgnoreCase("Admin")) {
                 throw new AccessDeniedException("Only project owners or admins can delete tasks");
             }
         }
@@ -117,6 +173,7 @@ public class TaskService {
 
         // Now delete the task
         taskRepository.deleteById(id);
+        projectSummaryService.evict(project.getIdprojet());
     }
 
     // Simple deletion without permission checks (to be used internally)
@@ -138,6 +195,7 @@ public class TaskService {
 
         // Now delete the task
         taskRepository.deleteById(id);
+        projectSummaryService.evict(projectIdOf(task));
     }
 
     @Transactional
@@ -165,4 +223,8 @@ public class TaskService {
         return taskRepository.findByAssigneesIdAndProjectIdprojet(userId, projectId);
     }
 
+    private static Long projectIdOf(Task task) {
+        return task.getProject() != null ? task.getProject().getIdprojet() : null;
+    }
+
 }
\ No newline at end of file
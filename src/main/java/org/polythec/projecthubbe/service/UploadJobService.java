@@ -0,0 +1,257 @@
+package org.polythec.projecthubbe.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.polythec.projecthubbe.dto.UploadJobDTO;
+import org.polythec.projecthubbe.entity.User;
+import org.polythec.projecthubbe.exception.UnsupportedImageTypeException;
+import org.polythec.projecthubbe.exception.ServiceBusyException;
+import org.polythec.projecthubbe.storage.BlobStore;
+import org.polythec.projecthubbe.storage.ImageTypes;
+import org.polythec.projecthubbe.storage.StoredBlob;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs profile picture uploads to the configured {@link BlobStore} in the background so that request threads only spool
+ * the multipart body to a temp file and return a job id.
+ * <p>
+ * Uploads run on a small dedicated pool with a bounded queue, are retried with exponential
+ * backoff, and stop being attempted for a while once storage keeps failing (circuit breaker).
+ * Job state can be polled and is also pushed to {@code /topic/uploads/{userId}}.
+ */
+@Service
+@Slf4j
+public class UploadJobService implements DisposableBean {
+
+    private final BlobStore blobStore;
+    private final UserService userService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ThreadPoolExecutor executor;
+    private final CircuitBreaker circuitBreaker;
+    private final Cache<String, UploadJobDTO> jobs;
+
+    @Value("${app.uploads.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.uploads.initial-backoff:PT1S}")
+    private Duration initialBackoff;
+
+    public UploadJobService(BlobStore blobStore, UserService userService, ImageDerivativeService imageDerivativeService,
+                            SimpMessagingTemplate messagingTemplate,
+                            @Value("${app.uploads.threads:4}") int threads,
+                            @Value("${app.uploads.queue-capacity:32}") int queueCapacity,
+                            @Value("${app.uploads.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                            @Value("${app.uploads.circuit-breaker.open-duration:PT30S}") Duration openDuration) {
+        this.blobStore = blobStore;
+        this.userService = userService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.messagingTemplate = messagingTemplate;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofHours(1))
+                .build();
+        this.executor = BoundedExecutors.create("upload", threads, queueCapacity);
+    }
+
+    /**
+     * Spools the image to disk and queues its upload.
+     *
+     * @throws UnsupportedImageTypeException if the bytes are not a PNG, JPEG, GIF or WebP image
+     * @throws ServiceBusyException if the queue is full or storage is currently failing
+     */
+    public UploadJobDTO submitProfilePicture(User user, MultipartFile image) throws IOException {
+        if (circuitBreaker.isOpen()) {
+            throw new ServiceBusyException("Image storage is unavailable, try again later",
+                    circuitBreaker.secondsUntilRetry());
+        }
+
+        Path spooled = Files.createTempFile("upload-", ".tmp");
+        image.transferTo(spooled);
+        // The client's Content-Type is not trusted; the type is taken from the bytes
+        String contentType = ImageTypes.detect(spooled).orElse(null);
+        if (contentType == null) {
+            deleteQuietly(spooled);
+            throw new UnsupportedImageTypeException("Only PNG, JPEG, GIF and WebP images are accepted");
+        }
+
+        UploadJobDTO job = new UploadJobDTO();
+        job.setId(UUID.randomUUID().toString());
+        job.setUserId(user.getId());
+        job.setStatus(UploadJobDTO.Status.QUEUED);
+        job.setUpdatedAt(LocalDateTime.now());
+        jobs.put(job.getId(), job);
+
+        String email = user.getEmail();
+        try {
+            executor.execute(() -> run(job, email, spooled, contentType));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            deleteQuietly(spooled);
+            throw new ServiceBusyException("Too many uploads in progress, try again later", 5);
+        }
+        return job;
+    }
+
+    public UploadJobDTO getJob(String jobId) {
+        return jobs.getIfPresent(jobId);
+    }
+
+    private void run(UploadJobDTO job, String email, Path file, String contentType) {
+        try {
+            update(job, UploadJobDTO.Status.RUNNING, null);
+            // Only the storage call is retried and counted by the circuit breaker
+            StoredBlob blob = null;
+            Duration backoff = initialBackoff;
+            for (int attempt = 1; ; attempt++) {
+                job.setAttempts(attempt);
+                if (!circuitBreaker.tryAcquire()) {
+                    update(job, UploadJobDTO.Status.FAILED, "Image storage is unavailable");
+                    return;
+                }
+                try {
+                    blob = blobStore.store(file, contentType);
+                    circuitBreaker.recordSuccess();
+                    break;
+                } catch (Exception e) {
+                    circuitBreaker.recordFailure();
+                    log.warn("Upload {} attempt {} failed: {}", job.getId(), attempt, e.getMessage());
+                    if (attempt >= maxAttempts) {
+                        update(job, UploadJobDTO.Status.FAILED, e.getMessage());
+                        return;
+                    }
+                }
+                Thread.sleep(backoff.toMillis());
+                backoff = backoff.multipliedBy(2);
+            }
+
+            try {
+                userService.updateProfilePictureAndPublicId(email, blob.getUrl(), blob.getKey());
+            } catch (RuntimeException e) {
+                log.warn("Upload {} stored as {} but the profile update failed", job.getId(), blob.getKey(), e);
+                deleteBlobQuietly(blob.getKey());
+                update(job, UploadJobDTO.Status.FAILED, "Could not save the profile picture");
+                return;
+            }
+            imageDerivativeService.profilePictureStored(email, blob.getKey());
+            job.setUrl(blob.getUrl());
+            job.setPublicId(blob.getKey());
+            update(job, UploadJobDTO.Status.SUCCEEDED, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            update(job, UploadJobDTO.Status.FAILED, "Upload interrupted");
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    private void update(UploadJobDTO job, UploadJobDTO.Status status, String error) {
+        job.setStatus(status);
+        job.setError(error);
+        job.setUpdatedAt(LocalDateTime.now());
+        jobs.put(job.getId(), job);
+        messagingTemplate.convertAndSend("/topic/uploads/" + job.getUserId(), job);
+    }
+
+    private void deleteBlobQuietly(String key) {
+        try {
+            blobStore.delete(key);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not delete orphaned blob {}", key, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}", file, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Opens after a run of consecutive failures. Once the open period has elapsed it turns half-open
+     * and admits exactly one probe; the probe's result closes it or opens it again.
+     */
+    private static final class CircuitBreaker {
+        private enum State { CLOSED, OPEN, HALF_OPEN }
+
+        private final int failureThreshold;
+        private final long openNanos;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean probeInFlight;
+
+        CircuitBreaker(int failureThreshold, Duration openDuration) {
+            this.failureThreshold = failureThreshold;
+            this.openNanos = openDuration.toNanos();
+        }
+
+        /**
+         * Whether new work should be turned away; does not use up the half-open probe.
+         */
+        synchronized boolean isOpen() {
+            return state == State.OPEN && System.nanoTime() - openedAt < openNanos;
+        }
+
+        /**
+         * Admits a call: always when closed, never while open, and only the first caller when half-open.
+         */
+        synchronized boolean tryAcquire() {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+            }
+            return true;
+        }
+
+        synchronized long secondsUntilRetry() {
+            long remaining = openNanos - (System.nanoTime() - openedAt);
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining));
+        }
+
+        synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            state = State.CLOSED;
+        }
+
+        synchronized void recordFailure() {
+            probeInFlight = false;
+            if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+            }
+        }
+    }
+}
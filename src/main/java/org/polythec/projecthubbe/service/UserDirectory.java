@@ -0,0 +1,68 @@
+package org.polythec.projecthubbe.service;
+
+import org.polythec.projecthubbe.config.CacheConfig;
+import org.polythec.projecthubbe.dto.UserSummaryDTO;
+import org.polythec.projecthubbe.repository.UserRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Resolves user ids to {@link UserSummaryDTO}s in bulk.
+ * Ids missing from the short-lived summary cache are loaded together with one
+ * {@code WHERE id IN (...)} query per chunk instead of one lookup per row.
+ */
+@Service
+public class UserDirectory {
+
+    // Keeps the IN list well below the driver's bind parameter limit
+    private static final int QUERY_CHUNK_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final Cache userSummaries;
+
+    public UserDirectory(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.userSummaries = cacheManager.getCache(CacheConfig.USER_SUMMARIES);
+    }
+
+    public UserSummaryDTO get(String id) {
+        return resolve(List.of(id)).get(id);
+    }
+
+    /**
+     * Returns the summaries of the given users keyed by id, in the order of {@code ids}.
+     * Unknown ids are absent from the result.
+     */
+    public Map<String, UserSummaryDTO> resolve(Collection<String> ids) {
+        Map<String, UserSummaryDTO> result = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            if (id == null || result.containsKey(id)) {
+                continue;
+            }
+            UserSummaryDTO cached = userSummaries.get(id, UserSummaryDTO.class);
+            result.put(id, cached);
+            if (cached == null) {
+                missing.add(id);
+            }
+        }
+
+        for (int from = 0; from < missing.size(); from += QUERY_CHUNK_SIZE) {
+            List<String> chunk = missing.subList(from, Math.min(from + QUERY_CHUNK_SIZE, missing.size()));
+            for (UserSummaryDTO summary : userRepository.findSummariesByIdIn(chunk)) {
+                userSummaries.put(summary.getId(), summary);
+                result.put(summary.getId(), summary);
+            }
+        }
+
+        result.values().removeIf(Objects::isNull);
+        return result;
+    }
+
+    public void evict(String id) {
+        userSummaries.evict(id);
+    }
+}
@@ -0,0 +1,343 @@
+package org.polythec.projecthubbe.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.polythec.projecthubbe.dto.UserSummaryDTO;
+import org.polythec.projecthubbe.entity.User;
+import org.polythec.projecthubbe.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory radix trie over user first names, last names, full names and emails,
+ * used for autocomplete so that each keystroke does not reach the database.
+ * <p>
+ * Each node holds a whole run of characters as a {@code char[]} edge label, children sorted by
+ * their first character, and only the users whose key ends there. Removals prune nodes left
+ * without users and merge single-child chains back, so the trie only holds live keys.
+ * Lookups walk the prefix and then collect completions by key length, so shorter matches rank first.
+ */
+@Component
+@Slf4j
+public class UserPrefixIndex {
+
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final char[] NO_LABEL = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final String[] NO_IDS = new String[0];
+
+    private final UserRepository userRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node(NO_LABEL);
+    private Map<String, Entry> entries = new HashMap<>();
+
+    public UserPrefixIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Node newRoot = new Node(NO_LABEL);
+        Map<String, Entry> newEntries = new HashMap<>();
+        for (UserRepository.UserIndexView view : userRepository.findAllForIndex()) {
+            Entry entry = new Entry(view.getId(), view.getFirstName(), view.getLastName(), view.getEmail());
+            newEntries.put(entry.id(), entry);
+            for (String key : entry.keys()) {
+                insert(newRoot, key, entry.id());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            root = newRoot;
+            entries = newEntries;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("User prefix index built with {} users", newEntries.size());
+    }
+
+    /**
+     * Adds the user, replacing whatever was indexed for the same id.
+     */
+    public void put(User user) {
+        Entry entry = new Entry(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(entry.id(), entry);
+            if (previous != null) {
+                for (String key : previous.keys()) {
+                    delete(root, key, previous.id());
+                }
+            }
+            for (String key : entry.keys()) {
+                insert(root, key, entry.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String userId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(userId);
+            if (previous != null) {
+                for (String key : previous.keys()) {
+                    delete(root, key, previous.id());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} users with a name, full name or email starting with the prefix.
+     */
+    public List<UserSummaryDTO> complete(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            // Find the node whose edge covers the end of the prefix, tracking the key length up to it
+            Node node = root;
+            int depth = 0;
+            while (depth < normalized.length()) {
+                Node child = node.child(normalized.charAt(depth));
+                if (child == null) {
+                    return List.of();
+                }
+                int overlap = Math.min(child.label.length, normalized.length() - depth);
+                for (int k = 0; k < overlap; k++) {
+                    if (child.label[k] != normalized.charAt(depth + k)) {
+                        return List.of();
+                    }
+                }
+                depth += child.label.length;
+                node = child;
+            }
+
+            // A user can match through several keys under the same prefix
+            Set<String> ids = new LinkedHashSet<>();
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator.comparingInt(Candidate::keyLength));
+            queue.add(new Candidate(node, depth));
+            while (!queue.isEmpty() && ids.size() < limit) {
+                Candidate current = queue.poll();
+                for (String id : current.node().userIds) {
+                    ids.add(id);
+                    if (ids.size() == limit) {
+                        break;
+                    }
+                }
+                for (Node child : current.node().children) {
+                    queue.add(new Candidate(child, current.keyLength() + child.label.length));
+                }
+            }
+
+            List<UserSummaryDTO> results = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                results.add(entries.get(id).toSummary());
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void insert(Node root, String key, String userId) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.childIndex(key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i).toCharArray());
+                leaf.addUser(userId);
+                node.insertChild(-index - 1, leaf);
+                return;
+            }
+            Node child = node.children[index];
+            int common = 0;
+            while (common < child.label.length && i + common < key.length()
+                    && child.label[common] == key.charAt(i + common)) {
+                common++;
+            }
+            if (common < child.label.length) {
+                // The key diverges inside the edge: split it at the divergence point
+                Node middle = new Node(Arrays.copyOfRange(child.label, 0, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.children = new Node[]{child};
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        node.addUser(userId);
+    }
+
+    private static void delete(Node root, String key, String userId) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null || child.label.length > key.length() - i
+                    || !key.regionMatches(i, new String(child.label), 0, child.label.length)) {
+                return;
+            }
+            path.add(node);
+            node = child;
+            i += child.label.length;
+        }
+        node.removeUser(userId);
+
+        // Walk back up, dropping nodes without users or children and merging single-child chains
+        for (int p = path.size() - 1; p >= 0 && node.userIds.length == 0; p--) {
+            Node parent = path.get(p);
+            if (node.children.length == 0) {
+                parent.removeChild(node);
+                node = parent;
+            } else {
+                if (node.children.length == 1) {
+                    Node only = node.children[0];
+                    char[] merged = Arrays.copyOf(node.label, node.label.length + only.label.length);
+                    System.arraycopy(only.label, 0, merged, node.label.length, only.label.length);
+                    node.label = merged;
+                    node.children = only.children;
+                    node.userIds = only.userIds;
+                }
+                return;
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+    }
+
+    private record Entry(String id, String firstName, String lastName, String email) {
+
+        Set<String> keys() {
+            Set<String> keys = new LinkedHashSet<>(4);
+            addKey(keys, firstName);
+            addKey(keys, lastName);
+            addKey(keys, email);
+            if (firstName != null && lastName != null) {
+                addKey(keys, firstName + " " + lastName);
+            }
+            return keys;
+        }
+
+        private static void addKey(Set<String> keys, String value) {
+            String key = normalize(value);
+            if (!key.isEmpty()) {
+                keys.add(key);
+            }
+        }
+
+        UserSummaryDTO toSummary() {
+            UserSummaryDTO dto = new UserSummaryDTO();
+            dto.setId(id);
+            dto.setFirstName(firstName);
+            dto.setLastName(lastName);
+            dto.setEmail(email);
+            return dto;
+        }
+    }
+
+    private record Candidate(Node node, int keyLength) {
+    }
+
+    private static final class Node {
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private String[] userIds = NO_IDS;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        Node child(char c) {
+            int index = childIndex(c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        /**
+         * Binary search on the children's first characters, with the usual negative insertion point.
+         */
+        int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = children[mid].label[0];
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertChild(int insertAt, Node child) {
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newChildren[insertAt] = child;
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            children = newChildren;
+        }
+
+        void removeChild(Node child) {
+            int index = childIndex(child.label[0]);
+            if (index < 0) {
+                return;
+            }
+            if (children.length == 1) {
+                children = NO_CHILDREN;
+                return;
+            }
+            Node[] remaining = new Node[children.length - 1];
+            System.arraycopy(children, 0, remaining, 0, index);
+            System.arraycopy(children, index + 1, remaining, index, children.length - index - 1);
+            children = remaining;
+        }
+
+        void addUser(String userId) {
+            for (String id : userIds) {
+                if (id.equals(userId)) {
+                    return;
+                }
+            }
+            userIds = Arrays.copyOf(userIds, userIds.length + 1);
+            userIds[userIds.length - 1] = userId;
+        }
+
+        void removeUser(String userId) {
+            for (int i = 0; i < userIds.length; i++) {
+                if (userIds[i].equals(userId)) {
+                    if (userIds.length == 1) {
+                        userIds = NO_IDS;
+                    } else {
+                        String[] remaining = new String[userIds.length - 1];
+                        System.arraycopy(userIds, 0, remaining, 0, i);
+                        System.arraycopy(userIds, i + 1, remaining, i, userIds.length - i - 1);
+                        userIds = remaining;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.polythec.projecthubbe.service;
 import org.polythec.projecthubbe.entity.User;
 import org.polythec.projecthubbe.exception.EmailAlreadyExistsException;
 import org.polythec.projecthubbe.exception.UserNotFoundException;
+import org.polythec.projecthubbe.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.List;
@@ -10,7 +11,7 @@ public interface UserService {
     User createUser(User user) throws EmailAlreadyExistsException;
     User getUserById(String id) throws UserNotFoundException;
     User getUserByEmail(String email) throws UserNotFoundException;
-    List<User> searchUsersByEmailOrName(String keyword);
+    List<UserRepository.RankedUserView> searchUsers(String keyword, int limit, Float afterScore, String afterId);
     User updateUser(String userId, User userDetails) throws UserNotFoundException;
     void deleteUser(String userId) throws UserNotFoundException;
     void updateLastLogin(String email) throws UserNotFoundException;
@@ -23,4 +24,5 @@ public interface UserService {
     User getCurrentlyAuthenticatedUser();
     public void updateProfilePictureAndPublicId(String email, String url, String publicId);
     void updateProfilePicture(String email, String imageUrl);
+    void updateProfilePictureThumbnail(String email, String publicId, String thumbnailUrl);
 }
\ No newline at end of file
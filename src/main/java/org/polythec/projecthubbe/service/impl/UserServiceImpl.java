@@ -1,17 +1,26 @@
 package org.polythec.projecthubbe.service.impl;
 
+import org.polythec.projecthubbe.config.CacheConfig;
 import org.polythec.projecthubbe.dto.UserDTO;
 import org.polythec.projecthubbe.dto.UserSummaryDTO;
 import org.polythec.projecthubbe.exception.EmailAlreadyExistsException;
 import org.polythec.projecthubbe.exception.UserNotFoundException;
 import org.polythec.projecthubbe.entity.User;
 import org.polythec.projecthubbe.repository.UserRepository;
+import org.polythec.projecthubbe.security.TokenRevocationService;
+import org.polythec.projecthubbe.service.AfterCommit;
+import org.polythec.projecthubbe.service.LastLoginTracker;
+import org.polythec.projecthubbe.service.UserDirectory;
+import org.polythec.projecthubbe.service.UserPrefixIndex;
 import org.polythec.projecthubbe.service.UserService;
 
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,21 +28,46 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 
 @Service
 @Transactional
 public class UserServiceImpl implements UserService, UserDetailsService {
 
+    // Request attribute holding the user already resolved for the current request
+    private static final String CURRENT_USER_ATTRIBUTE = UserServiceImpl.class.getName() + ".CURRENT_USER";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    private final TokenRevocationService tokenRevocationService;
+    private final LastLoginTracker lastLoginTracker;
+    private final UserPrefixIndex userPrefixIndex;
+    private final UserDirectory userDirectory;
+
+    // Immutable UserSnapshot records, evicted explicitly on every write below
+    private final Cache usersByEmail;
+    private final Cache usersById;
+    private final Cache currentUserDtos;
+
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                           TokenRevocationService tokenRevocationService, CacheManager cacheManager,
+                           LastLoginTracker lastLoginTracker, UserPrefixIndex userPrefixIndex,
+                           UserDirectory userDirectory) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationService = tokenRevocationService;
+        this.lastLoginTracker = lastLoginTracker;
+        this.userPrefixIndex = userPrefixIndex;
+        this.userDirectory = userDirectory;
+        this.usersByEmail = cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+        this.usersById = cacheManager.getCache(CacheConfig.USERS_BY_ID);
+        this.currentUserDtos = cacheManager.getCache(CacheConfig.CURRENT_USER_DTOS);
     }
 
     @Override
@@ -64,14 +98,22 @@ public class UserServiceImpl implements UserService, UserDetailsService {
             user.setLastName(user.getLastName().trim());
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        AfterCommit.run(() -> userPrefixIndex.put(saved));
+        return saved;
     }
 
     @Override
     @Transactional(readOnly = true)
     public User getUserById(String id) throws UserNotFoundException {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
+        UserSnapshot cached = usersById.get(id, UserSnapshot.class);
+        if (cached != null) {
+            // The snapshot proved the user exists; callers get an entity of their own persistence context
+            return userRepository.getReferenceById(cached.id());
+        }
+        User user = loadUser(id);
+        cache(user);
+        return user;
     }
 
     @Override
@@ -81,14 +123,23 @@ public class UserServiceImpl implements UserService, UserDetailsService {
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
     }
     @Override
-    public List<User> searchUsersByEmailOrName(String keyword) {
-        return userRepository.findByEmailContainingIgnoreCaseOrNameContainingIgnoreCase(keyword, keyword);
+    @Transactional(readOnly = true)
+    public List<UserRepository.RankedUserView> searchUsers(String keyword, int limit, Float afterScore, String afterId) {
+        String normalized = keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        String escaped = normalized.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        // similarity() never exceeds 1, so the first page starts above every score
+        float fromScore = afterScore != null ? afterScore : 2f;
+        String fromId = afterScore != null && afterId != null ? afterId : "";
+        return userRepository.searchRanked("%" + escaped + "%", normalized, fromScore, fromId, limit);
     }
 
 
     @Override
     public User updateUser(String userId, User userDetails) throws UserNotFoundException {
-        User user = getUserById(userId);
+        User user = loadUser(userId);
 
         if (userDetails.getFirstName() != null) {
             user.setFirstName(userDetails.getFirstName());
@@ -103,20 +154,30 @@ public class UserServiceImpl implements UserService, UserDetailsService {
             user.setTimezone(userDetails.getTimezone());
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        evict(saved);
+        AfterCommit.run(() -> userPrefixIndex.put(saved));
+        return saved;
     }
 
     @Override
     public void deleteUser(String userId) throws UserNotFoundException {
-        User user = getUserById(userId);
+        User user = loadUser(userId);
         userRepository.delete(user);
+        evict(user);
+        tokenRevocationService.revokeAllForUser(userId);
+        AfterCommit.run(() -> userPrefixIndex.remove(userId));
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updateLastLogin(String email) throws UserNotFoundException {
-        User user = getUserByEmail(email);
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        // The user was just loaded by authentication, so this is a cache hit
+        UserSnapshot user = findByEmailCached(email);
+        if (user == null) {
+            throw new UserNotFoundException("User not found with email: " + email);
+        }
+        lastLoginTracker.recordLogin(user.id());
     }
 
     @Override
@@ -126,9 +187,10 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     @Override
     public void verifyUser(String userId) throws UserNotFoundException {
-        User user = getUserById(userId);
+        User user = loadUser(userId);
         user.setIsVerified(true);
         userRepository.save(user);
+        evict(user);
     }
 
     @Override
@@ -137,9 +199,14 @@ public class UserServiceImpl implements UserService, UserDetailsService {
             throw new IllegalArgumentException("Invalid status value: " + status);
         }
 
-        User user = getUserById(userId);
+        User user = loadUser(userId);
         user.setStatus(status);
         userRepository.save(user);
+        evict(user);
+        if (!"active".equals(status)) {
+            // Tokens carry the status they were issued with, so older ones must stop working
+            tokenRevocationService.revokeAllForUser(userId);
+        }
     }
 
     @Override
@@ -156,8 +223,11 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        UserSnapshot user = findByEmailCached(email);
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found with email: " + email);
+        }
+        return user.toUserDetails();
     }
 
     @Override
@@ -167,9 +237,23 @@ public class UserServiceImpl implements UserService, UserDetailsService {
             throw new AuthenticationCredentialsNotFoundException("No authentication found");
         }
 
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null
+                && request.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User resolved) {
+            return resolved;
+        }
+
         String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+        UserSnapshot snapshot = findByEmailCached(email);
+        if (snapshot == null) {
+            throw new RuntimeException("User not found with email: " + email);
+        }
+        // A reference, not the cached record: fields beyond the id load lazily in this request's context
+        User user = userRepository.getReferenceById(snapshot.id());
+        if (request != null) {
+            request.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
     }
     public UserDTO getCurrentlyAuthenticatedUserDTO() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -178,10 +262,18 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         }
 
         String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+        UserDTO cached = currentUserDtos.get(email, UserDTO.class);
+        if (cached != null) {
+            return cached;
+        }
+        UserSnapshot user = findByEmailCached(email);
+        if (user == null) {
+            throw new RuntimeException("User not found with email: " + email);
+        }
 
-        return mapToDTO(user);
+        UserDTO dto = mapToDTO(user);
+        currentUserDtos.put(email, dto);
+        return dto;
     }
 
     public UserSummaryDTO mapToSDTO(User user) {
@@ -192,13 +284,14 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         dto.setLastName(user.getLastName());
         return dto;
     }
-    private UserDTO mapToDTO(User user) {
+    private UserDTO mapToDTO(UserSnapshot user) {
         UserDTO dto = new UserDTO();
-        dto.setId(user.getId());
-        dto.setEmail(user.getEmail());
-        dto.setFirstName(user.getFirstName());
-        dto.setLastName(user.getLastName());
-        dto.setProfilePicture(user.getProfilePicture());
+        dto.setId(user.id());
+        dto.setEmail(user.email());
+        dto.setFirstName(user.firstName());
+        dto.setLastName(user.lastName());
+        dto.setProfilePicture(user.profilePicture());
+        dto.setProfilePictureThumbnail(user.profilePictureThumbnail());
         return dto;
     }
 
@@ -209,6 +302,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
         user.setCloudinaryPublicId(publicId);
         userRepository.save(user);
+        evict(user);
     }
 
     public void updateProfilePictureAndPublicId(String email, String url, String publicId) {
@@ -216,6 +310,60 @@ public class UserServiceImpl implements UserService, UserDetailsService {
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
         user.setProfilePicture(url);
         user.setCloudinaryPublicId(publicId);
+        // The old thumbnail no longer matches; lists fall back to the original until the new one exists
+        user.setProfilePictureThumbnail(null);
+        userRepository.save(user);
+        evict(user);
+    }
+
+    @Override
+    public void updateProfilePictureThumbnail(String email, String publicId, String thumbnailUrl) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        // Ignore thumbnails of a picture that has been replaced in the meantime
+        if (!publicId.equals(user.getCloudinaryPublicId())) {
+            return;
+        }
+        user.setProfilePictureThumbnail(thumbnailUrl);
         userRepository.save(user);
+        evict(user);
+    }
+
+    // Writes always start from a managed entity, never from a cached snapshot
+    private User loadUser(String id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
+    }
+
+    private UserSnapshot findByEmailCached(String email) {
+        UserSnapshot cached = usersByEmail.get(email, UserSnapshot.class);
+        if (cached != null) {
+            return cached;
+        }
+        return userRepository.findByEmail(email).map(this::cache).orElse(null);
+    }
+
+    private UserSnapshot cache(User user) {
+        UserSnapshot snapshot = UserSnapshot.of(user);
+        usersByEmail.put(snapshot.email(), snapshot);
+        usersById.put(snapshot.id(), snapshot);
+        return snapshot;
+    }
+
+    private void evict(User user) {
+        String id = user.getId();
+        String email = user.getEmail();
+        AfterCommit.runNowAndAfterCommit(() -> evictNow(id, email));
+    }
+
+    private void evictNow(String id, String email) {
+        usersById.evict(id);
+        usersByEmail.evict(email);
+        currentUserDtos.evict(email);
+        userDirectory.evict(id);
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.removeAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
     }
 }
@@ -0,0 +1,42 @@
+package org.polythec.projecthubbe.service.impl;
+
+import org.polythec.projecthubbe.entity.User;
+import org.polythec.projecthubbe.security.AuthenticatedUser;
+
+/**
+ * Immutable copy of the user fields needed to authenticate and describe a user.
+ * This is what the user caches hold, so no entity instance is ever shared between threads.
+ */
+record UserSnapshot(String id,
+                    String email,
+                    String passwordHash,
+                    String status,
+                    boolean verified,
+                    String firstName,
+                    String lastName,
+                    String profilePicture,
+                    String profilePictureThumbnail) {
+
+    static UserSnapshot of(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getStatus(),
+                Boolean.TRUE.equals(user.getIsVerified()),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getProfilePicture(),
+                user.getProfilePictureThumbnail()
+        );
+    }
+
+    AuthenticatedUser toUserDetails() {
+        return new AuthenticatedUser(id, email, passwordHash, status, verified);
+    }
+
+    @Override
+    public String toString() {
+        return "UserSnapshot{id='" + id + "', email='" + email + "'}";
+    }
+}
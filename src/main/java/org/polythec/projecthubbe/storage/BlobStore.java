@@ -0,0 +1,31 @@
+package org.polythec.projecthubbe.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Storage for uploaded binaries such as avatars and task attachments.
+ * The backend is chosen with the {@code storage.backend} property ({@code cloudinary} or {@code local}).
+ */
+public interface BlobStore {
+
+    /**
+     * Stores the file and returns its key and public URL. The source file is left in place.
+     */
+    StoredBlob store(Path file, String contentType) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Makes a square derivative of an image blob available and returns its URL.
+     * Derivatives are keyed by the original's key plus the size, so asking twice is cheap.
+     */
+    String createDerivative(String key, int size) throws IOException;
+
+    /**
+     * Whether clients may upload straight to the backend with a signed ticket instead of through the API.
+     */
+    default boolean supportsDirectUploads() {
+        return false;
+    }
+}
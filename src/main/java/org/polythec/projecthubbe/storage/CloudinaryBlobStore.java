@@ -0,0 +1,50 @@
+package org.polythec.projecthubbe.storage;
+
+import org.polythec.projecthubbe.repository.CloudinaryUploadResult;
+import org.polythec.projecthubbe.service.CloudinaryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Default backend: blobs live in Cloudinary and are keyed by their public id.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryBlobStore implements BlobStore {
+
+    private final CloudinaryService cloudinaryService;
+    private final Duration uploadTimeout;
+
+    public CloudinaryBlobStore(CloudinaryService cloudinaryService,
+                               @Value("${app.uploads.timeout:PT30S}") Duration uploadTimeout) {
+        this.cloudinaryService = cloudinaryService;
+        this.uploadTimeout = uploadTimeout;
+    }
+
+    @Override
+    public StoredBlob store(Path file, String contentType) throws IOException {
+        CloudinaryUploadResult result = cloudinaryService.uploadFile(file, uploadTimeout);
+        return new StoredBlob(result.getPublicId(), result.getSecureUrl());
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        cloudinaryService.deleteFile(key);
+    }
+
+    // Cloudinary renders and caches derivatives from the transformation in the URL
+    @Override
+    public String createDerivative(String key, int size) {
+        return cloudinaryService.derivativeUrl(key, size);
+    }
+
+    @Override
+    public boolean supportsDirectUploads() {
+        return true;
+    }
+}
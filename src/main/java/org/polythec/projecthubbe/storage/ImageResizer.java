@@ -0,0 +1,69 @@
+package org.polythec.projecthubbe.storage;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Produces square, center-cropped PNG thumbnails with the JDK's imaging classes.
+ * Uploads are untrusted, so the declared dimensions are checked against a pixel cap before
+ * anything is decoded, and only the cropped region is decoded, subsampled down to roughly
+ * twice the thumbnail size.
+ */
+final class ImageResizer {
+
+    private ImageResizer() {
+    }
+
+    static void writeSquareThumbnail(Path source, int size, Path target, long maxPixels) throws IOException {
+        BufferedImage cropped;
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                throw new IOException("Unsupported image format");
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width <= 0 || height <= 0 || (long) width * height > maxPixels) {
+                    throw new IOException("Image dimensions " + width + "x" + height + " exceed the limit of " + maxPixels + " pixels");
+                }
+
+                int edge = Math.min(width, height);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(new Rectangle((width - edge) / 2, (height - edge) / 2, edge, edge));
+                // Keep about twice the target resolution so the bicubic downscale still has detail to work with
+                int step = Math.max(1, edge / (size * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                cropped = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        BufferedImage thumbnail = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(cropped, 0, 0, size, size, 0, 0, cropped.getWidth(), cropped.getHeight(), null);
+        } finally {
+            graphics.dispose();
+        }
+
+        if (!ImageIO.write(thumbnail, "png", target.toFile())) {
+            throw new IOException("No PNG writer available");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.polythec.projecthubbe.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Detects the image types accepted for uploads from their leading bytes.
+ * The content type sent by the client is never trusted: blobs are served back with the
+ * type detected here, so a file claiming {@code text/html} cannot end up rendered as a page.
+ */
+public final class ImageTypes {
+
+    public static final String PNG = "image/png";
+    public static final String JPEG = "image/jpeg";
+    public static final String GIF = "image/gif";
+    public static final String WEBP = "image/webp";
+
+    private static final Set<String> ALLOWED = Set.of(PNG, JPEG, GIF, WEBP);
+    private static final int HEADER_LENGTH = 12;
+
+    private ImageTypes() {
+    }
+
+    /**
+     * Returns the content type of the file if it starts like a PNG, JPEG, GIF or WebP image.
+     */
+    public static Optional<String> detect(Path file) throws IOException {
+        byte[] header;
+        try (InputStream in = Files.newInputStream(file)) {
+            header = in.readNBytes(HEADER_LENGTH);
+        }
+        return Optional.ofNullable(detect(header));
+    }
+
+    public static boolean isAllowed(String contentType) {
+        return contentType != null && ALLOWED.contains(contentType);
+    }
+
+    static String detect(byte[] header) {
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return PNG;
+        }
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return JPEG;
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8', '7', 'a') || startsWith(header, 0, 'G', 'I', 'F', '8', '9', 'a')) {
+            return GIF;
+        }
+        // RIFF container with a 4 byte length, then the WEBP form type
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return WEBP;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int offset, int... signature) {
+        if (header.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
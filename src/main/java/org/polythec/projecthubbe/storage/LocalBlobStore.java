@@ -0,0 +1,157 @@
+package org.polythec.projecthubbe.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Filesystem backend for on-prem installs and offline runs.
+ * Blobs are content addressed: the key is the SHA-256 of the bytes, so storing the same
+ * file twice keeps a single copy. Files are laid out as {@code root/ab/cd/<hash>} with the
+ * content type in a {@code <hash>.type} sidecar, and are served by {@code BlobController}.
+ * Only images are accepted, and the sidecar records the type detected from the bytes.
+ * Image derivatives sit next to their original as {@code <hash>-<size>}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+
+    // Content hash, optionally followed by the edge size of a derivative
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}(-[0-9]{1,4})?");
+    public static final String PUBLIC_PATH = "/api/blobs/";
+
+    private final Path root;
+    private final String publicBaseUrl;
+    private final long maxPixels;
+
+    public LocalBlobStore(@Value("${storage.local.root:./data/blobs}") String root,
+                          @Value("${storage.local.public-base-url:}") String publicBaseUrl,
+                          @Value("${app.images.max-pixels:40000000}") long maxPixels) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl;
+        this.maxPixels = maxPixels;
+        Files.createDirectories(this.root);
+    }
+
+    @Override
+    public StoredBlob store(Path file, String contentType) throws IOException {
+        // The claimed type is ignored: whatever lands in the sidecar is served back verbatim
+        String detectedType = ImageTypes.detect(file)
+                .orElseThrow(() -> new IOException("Unsupported image type"));
+        String key = sha256(file);
+        Path target = pathFor(key);
+        if (Files.exists(target)) {
+            return new StoredBlob(key, urlFor(key));
+        }
+
+        Files.createDirectories(target.getParent());
+        // Copy next to the target first so the final rename is atomic and readers never see a partial file
+        Path partial = Files.createTempFile(target.getParent(), key, ".partial");
+        try {
+            Files.copy(file, partial, StandardCopyOption.REPLACE_EXISTING);
+            Files.writeString(typePathFor(key), detectedType, StandardCharsets.UTF_8);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Another upload of the same content won the race; both refer to identical bytes
+            log.debug("Blob {} stored concurrently", key);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        return new StoredBlob(key, urlFor(key));
+    }
+
+    @Override
+    public String createDerivative(String key, int size) throws IOException {
+        Path original = resolve(key).orElseThrow(() -> new NoSuchFileException(key));
+        String derivativeKey = key + "-" + size;
+        Path target = pathFor(derivativeKey);
+        if (Files.exists(target)) {
+            return urlFor(derivativeKey);
+        }
+
+        Path partial = Files.createTempFile(target.getParent(), derivativeKey, ".partial");
+        try {
+            ImageResizer.writeSquareThumbnail(original, size, partial, maxPixels);
+            Files.writeString(typePathFor(derivativeKey), ImageTypes.PNG, StandardCharsets.UTF_8);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        return urlFor(derivativeKey);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        if (isValidKey(key)) {
+            Files.deleteIfExists(pathFor(key));
+            Files.deleteIfExists(typePathFor(key));
+        }
+    }
+
+    /**
+     * Returns the file backing the key, if it exists.
+     */
+    public Optional<Path> resolve(String key) {
+        if (!isValidKey(key)) {
+            return Optional.empty();
+        }
+        Path path = pathFor(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Returns the recorded image type, or {@code application/octet-stream} for anything else,
+     * including sidecars written before uploads were sniffed.
+     */
+    public String contentType(String key) {
+        try {
+            String type = Files.readString(typePathFor(key), StandardCharsets.UTF_8).trim();
+            return ImageTypes.isAllowed(type) ? type : "application/octet-stream";
+        } catch (IOException e) {
+            return "application/octet-stream";
+        }
+    }
+
+    public String urlFor(String key) {
+        return publicBaseUrl + PUBLIC_PATH + key;
+    }
+
+    public static boolean isValidKey(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches();
+    }
+
+    private Path pathFor(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private Path typePathFor(String key) {
+        return pathFor(key).resolveSibling(key + ".type");
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                // Only the digest computed while reading is needed
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
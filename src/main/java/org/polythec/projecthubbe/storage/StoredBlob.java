@@ -0,0 +1,11 @@
+package org.polythec.projecthubbe.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StoredBlob {
+    private final String key;
+    private final String url;
+}
@@ -0,0 +1,15 @@
+-- One-off migration for the user search index (UserRepository.searchRanked).
+-- Run it once per database, after the application has created the users table:
+--
+--   psql "$DATABASE_URL" -f user-search-trgm.sql
+--
+-- CREATE EXTENSION needs a role allowed to create extensions (a superuser, or the database
+-- owner on PostgreSQL 13+ where pg_trgm is a trusted extension). On managed PostgreSQL where
+-- the application role lacks that right, have an administrator run the first statement.
+-- Both statements are idempotent.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- The expression must stay identical to the one in the query
+CREATE INDEX IF NOT EXISTS idx_users_search_trgm
+    ON users USING gin (lower(email || ' ' || first_name || ' ' || last_name) gin_trgm_ops);
@@ -0,0 +1,57 @@
+package org.polythec.projecthubbe.controller;
+
+import org.junit.jupiter.api.Test;
+import org.polythec.projecthubbe.entity.Projet;
+import org.polythec.projecthubbe.exception.PreconditionFailedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalUpdateAdviceTests {
+
+    private final ConditionalUpdateAdvice advice = new ConditionalUpdateAdvice();
+
+    @Test
+    void racingSaveWithStaleIfMatchIsPreconditionFailed() {
+        assertEquals(HttpStatus.PRECONDITION_FAILED, concurrentUpdateStatus("\"3\""));
+    }
+
+    @Test
+    void racingSaveWithoutIfMatchIsConflict() {
+        assertEquals(HttpStatus.CONFLICT, concurrentUpdateStatus(null));
+        assertEquals(HttpStatus.CONFLICT, concurrentUpdateStatus("*"));
+    }
+
+    @Test
+    void staleVersionIsPreconditionFailed() {
+        assertEquals(HttpStatus.PRECONDITION_FAILED,
+                advice.handlePreconditionFailed(new PreconditionFailedException("stale")).getStatusCode());
+    }
+
+    @Test
+    void ifMatchNamesTheExpectedVersion() {
+        assertEquals(3L, ETags.expectedVersion(ETags.of(3)));
+        assertEquals(3L, ETags.expectedVersion(" \"3\" "));
+        assertNull(ETags.expectedVersion(null));
+        assertNull(ETags.expectedVersion("*"));
+    }
+
+    @Test
+    void ifMatchThatCannotMatchIsRejected() {
+        assertThrows(PreconditionFailedException.class, () -> ETags.expectedVersion("W/\"3\""));
+        assertThrows(PreconditionFailedException.class, () -> ETags.expectedVersion("3"));
+        assertThrows(PreconditionFailedException.class, () -> ETags.expectedVersion("\"v3\""));
+    }
+
+    private HttpStatus concurrentUpdateStatus(String ifMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/projects/1");
+        if (ifMatch != null) {
+            request.addHeader(HttpHeaders.IF_MATCH, ifMatch);
+        }
+        ObjectOptimisticLockingFailureException e = new ObjectOptimisticLockingFailureException(Projet.class, 1L);
+        return HttpStatus.valueOf(advice.handleConcurrentUpdate(e, request).getStatusCode().value());
+    }
+}
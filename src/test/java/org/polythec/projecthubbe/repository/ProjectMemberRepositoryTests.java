@@ -0,0 +1,136 @@
+package org.polythec.projecthubbe.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polythec.projecthubbe.dto.ProjectMemberDTO;
+import org.polythec.projecthubbe.dto.ProjetDTO;
+import org.polythec.projecthubbe.entity.ProjectMember;
+import org.polythec.projecthubbe.entity.ProjectMemberId;
+import org.polythec.projecthubbe.entity.Projet;
+import org.polythec.projecthubbe.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The my-projects and project-members listings must run in one statement regardless of size.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never"
+})
+class ProjectMemberRepositoryTests {
+
+    private static final int PROJECTS = 12;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProjectMemberRepository projectMemberRepository;
+
+    private Statistics statistics;
+    private User member;
+
+    @BeforeEach
+    void setUp() {
+        member = persistUser("member@example.com");
+        for (int i = 0; i < PROJECTS; i++) {
+            User owner = persistUser("owner" + i + "@example.com");
+            Projet projet = new Projet();
+            projet.setNom("Project " + i);
+            projet.setOwner(owner);
+            entityManager.persist(projet);
+            persistMembership(projet, owner, "Admin");
+            persistMembership(projet, member, "Member");
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void projectsOfMemberAreLoadedInOneQuery() {
+        List<ProjetDTO> projects = projectMemberRepository.findProjectDTOsByMember(member.getId());
+
+        assertEquals(PROJECTS, projects.size());
+        projects.forEach(project -> assertNotNull(project.getOwner().getEmail()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void membersOfProjectAreLoadedInOneQuery() {
+        Long projectId = projectMemberRepository.findProjectDTOsByMember(member.getId()).get(0).getIdprojet();
+        statistics.clear();
+
+        List<ProjectMemberDTO> members = projectMemberRepository.findMemberDTOsByProject(projectId);
+
+        assertEquals(2, members.size());
+        members.forEach(m -> assertNotNull(m.getRole()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void membershipsOfUserAreOrderedByProject() {
+        List<ProjectMemberRepository.MembershipView> memberships = projectMemberRepository.findMembershipsByUser(member.getId());
+
+        assertEquals(PROJECTS, memberships.size());
+        for (int i = 1; i < memberships.size(); i++) {
+            assertTrue(memberships.get(i - 1).getProjectId() < memberships.get(i).getProjectId());
+        }
+        memberships.forEach(m -> assertEquals("Member", m.getRole()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void existingMembersAmongCandidatesAreFoundInOneQuery() {
+        Long projectId = projectMemberRepository.findProjectDTOsByMember(member.getId()).get(0).getIdprojet();
+        statistics.clear();
+
+        List<String> existing = projectMemberRepository.findMemberUserIds(projectId, List.of(member.getId(), "unknown-user"));
+
+        assertEquals(List.of(member.getId()), existing);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void roleOfMemberIsReadInOneQuery() {
+        Long projectId = projectMemberRepository.findProjectDTOsByMember(member.getId()).get(0).getIdprojet();
+        statistics.clear();
+
+        assertEquals(Optional.of("Member"), projectMemberRepository.findRole(projectId, member.getId()));
+        assertEquals(Optional.empty(), projectMemberRepository.findRole(projectId, "unknown-user"));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setPassword("hash");
+        return entityManager.persist(user);
+    }
+
+    private void persistMembership(Projet projet, User user, String role) {
+        ProjectMember membership = new ProjectMember();
+        membership.setId(new ProjectMemberId(projet.getIdprojet(), user.getId()));
+        membership.setProject(projet);
+        membership.setUser(user);
+        membership.setRole(role);
+        entityManager.persist(membership);
+    }
+}
@@ -0,0 +1,160 @@
+package org.polythec.projecthubbe.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polythec.projecthubbe.dto.TaskDTO;
+import org.polythec.projecthubbe.entity.Comment;
+import org.polythec.projecthubbe.entity.Priority;
+import org.polythec.projecthubbe.entity.Projet;
+import org.polythec.projecthubbe.entity.Status;
+import org.polythec.projecthubbe.entity.Task;
+import org.polythec.projecthubbe.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The task board must load, and a leaving member's assignments must be removed, in a fixed
+ * number of statements regardless of how many tasks, assignees and comments the project has.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never"
+})
+class TaskBoardQueryTests {
+
+    private static final int TASKS = 10;
+    private static final int COMMENTS_PER_TASK = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Statistics statistics;
+    private Long projectId;
+    private String ownerId;
+    private String otherId;
+    private Long elsewhereTaskId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = persistUser("owner@example.com");
+        User other = persistUser("other@example.com");
+        Status status = entityManager.persist(new Status(null, "To Do"));
+        Priority priority = entityManager.persist(new Priority(null, "High"));
+
+        Projet projet = new Projet();
+        projet.setNom("Board");
+        projet.setOwner(owner);
+        entityManager.persist(projet);
+        projectId = projet.getIdprojet();
+
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setType("feature");
+            task.setProject(projet);
+            task.setStatus(status);
+            task.setPriority(priority);
+            task.getAssignees().add(owner);
+            task.getAssignees().add(other);
+            entityManager.persist(task);
+            for (int c = 0; c < COMMENTS_PER_TASK; c++) {
+                Comment comment = new Comment();
+                comment.setContent("Comment " + c);
+                comment.setTask(task);
+                comment.setUser(c % 2 == 0 ? owner : other);
+                entityManager.persist(comment);
+            }
+        }
+
+        // The same member, assigned in another project
+        Projet elsewhere = new Projet();
+        elsewhere.setNom("Elsewhere");
+        elsewhere.setOwner(other);
+        entityManager.persist(elsewhere);
+        Task elsewhereTask = new Task();
+        elsewhereTask.setTitle("Elsewhere task");
+        elsewhereTask.setType("feature");
+        elsewhereTask.setProject(elsewhere);
+        elsewhereTask.setStatus(status);
+        elsewhereTask.setPriority(priority);
+        elsewhereTask.getAssignees().add(other);
+        entityManager.persist(elsewhereTask);
+
+        ownerId = owner.getId();
+        otherId = other.getId();
+        elsewhereTaskId = elsewhereTask.getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void boardWithAssociationsIsLoadedInOneQuery() {
+        List<Task> tasks = taskRepository.findBoardByProject(projectId);
+        List<TaskDTO> board = tasks.stream().map(task -> new TaskDTO(task, 0, null)).toList();
+
+        assertEquals(TASKS, board.size());
+        board.forEach(dto -> {
+            assertEquals("Board", dto.getProjectName());
+            assertEquals("To Do", dto.getStatusName());
+            assertEquals("High", dto.getPriorityName());
+            assertEquals(2, dto.getAssignees().size());
+        });
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void commentCountsAreLoadedInOneQuery() {
+        List<CommentRepository.TaskCommentCount> counts = commentRepository.countByProject(projectId);
+
+        assertEquals(TASKS, counts.size());
+        counts.forEach(row -> assertEquals(COMMENTS_PER_TASK, row.getCommentCount()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void commentsWithAuthorsAreLoadedInOneQuery() {
+        List<Comment> comments = commentRepository.findByProjectWithUser(projectId);
+
+        assertEquals(TASKS * COMMENTS_PER_TASK, comments.size());
+        comments.forEach(comment -> comment.getUser().getEmail());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void assigneeIsRemovedFromTheProjectTasksInOneStatement() {
+        int removed = taskRepository.deleteAssigneeFromProject(projectId, otherId);
+
+        assertEquals(TASKS, removed);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        taskRepository.findBoardByProject(projectId).forEach(task ->
+                assertEquals(List.of(ownerId), task.getAssignees().stream().map(User::getId).toList()));
+        assertEquals(1, entityManager.find(Task.class, elsewhereTaskId).getAssignees().size());
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setPassword("hash");
+        return entityManager.persist(user);
+    }
+}
@@ -0,0 +1,78 @@
+package org.polythec.projecthubbe.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTests {
+
+    private static final String SECRET = "4kVdCJvEDrHzRBtOzUjGSeUaEnNRIsthuT/kwNLaUEc=";
+
+    private static final AuthenticatedUser USER =
+            new AuthenticatedUser("user-1", "ada@example.com", "hash", "active", true);
+
+    @Test
+    void parsesEachTokenOnce() {
+        JwtUtil jwtUtil = jwtUtil(60_000);
+        String token = jwtUtil.generateToken(USER);
+
+        Claims first = jwtUtil.parseVerifiedClaims(token);
+
+        assertSame(first, jwtUtil.parseVerifiedClaims(token));
+        assertNotSame(first, jwtUtil.parseVerifiedClaims(jwtUtil.generateToken(USER)));
+    }
+
+    @Test
+    void dropsCachedClaimsOnceTheTokenExpires() throws InterruptedException {
+        JwtUtil jwtUtil = jwtUtil(1_000);
+        String token = jwtUtil.generateToken(USER);
+        Date exp = jwtUtil.parseVerifiedClaims(token).getExpiration();
+
+        while (System.currentTimeMillis() <= exp.getTime() + 50) {
+            Thread.sleep(50);
+        }
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseVerifiedClaims(token));
+    }
+
+    @Test
+    void rebuildsThePrincipalFromClaims() {
+        JwtUtil jwtUtil = jwtUtil(60_000);
+        Claims claims = jwtUtil.parseVerifiedClaims(jwtUtil.generateToken(USER));
+
+        AuthenticatedUser principal = (AuthenticatedUser) jwtUtil.getAuthentication(claims).getPrincipal();
+
+        assertEquals("user-1", principal.getId());
+        assertEquals("ada@example.com", principal.getUsername());
+        assertEquals("active", principal.getStatus());
+        assertTrue(principal.isVerified());
+        assertTrue(principal.isEnabled());
+        assertNull(principal.getPassword());
+    }
+
+    @Test
+    void bannedPrincipalIsDisabled() {
+        JwtUtil jwtUtil = jwtUtil(60_000);
+        AuthenticatedUser banned = new AuthenticatedUser("user-2", "bob@example.com", "banned", false);
+
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(jwtUtil.parseVerifiedClaims(jwtUtil.generateToken(banned)));
+
+        assertFalse(principal.isVerified());
+        assertFalse(principal.isEnabled());
+        assertFalse(principal.isAccountNonLocked());
+    }
+
+    private static JwtUtil jwtUtil(long expirationMillis) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expirationMillis);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 100L);
+        jwtUtil.initSecretKey();
+        return jwtUtil;
+    }
+}
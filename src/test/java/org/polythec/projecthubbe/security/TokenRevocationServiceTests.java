@@ -0,0 +1,119 @@
+package org.polythec.projecthubbe.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polythec.projecthubbe.entity.RevokedToken;
+import org.polythec.projecthubbe.repository.RevokedTokenRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceTests {
+
+    private static final int REVOKED = 100;
+
+    // Ids persisted in the mocked denylist table
+    private final Set<String> denylist = new HashSet<>();
+
+    private RevokedTokenRepository repository;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        List<RevokedToken> active = new ArrayList<>();
+        for (int i = 0; i < REVOKED; i++) {
+            denylist.add("revoked-" + i);
+            active.add(new RevokedToken("revoked-" + i, RevokedToken.Kind.TOKEN,
+                    LocalDateTime.now(), LocalDateTime.now().plusHours(1)));
+        }
+        repository = mock(RevokedTokenRepository.class);
+        when(repository.findByExpiresAtAfter(any())).thenReturn(active);
+        when(repository.existsById(anyString())).thenAnswer(invocation -> denylist.contains(invocation.getArgument(0)));
+        when(repository.save(any(RevokedToken.class))).thenAnswer(invocation -> {
+            RevokedToken revoked = invocation.getArgument(0);
+            denylist.add(revoked.getId());
+            return revoked;
+        });
+
+        service = new TokenRevocationService(repository);
+        ReflectionTestUtils.setField(service, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(service, "expectedRevocations", REVOKED);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+        service.load();
+    }
+
+    @Test
+    void revokedTokenIsConfirmedAgainstTheDenylist() {
+        assertTrue(service.isRevoked(claims("revoked-7", "user-1", System.currentTimeMillis())));
+        verify(repository).existsById("revoked-7");
+    }
+
+    @Test
+    void logoutRevokesTheToken() {
+        assertFalse(service.isRevoked(claims("logged-out", "user-1", System.currentTimeMillis())));
+
+        service.revokeToken("logged-out", null);
+
+        assertTrue(service.isRevoked(claims("logged-out", "user-1", System.currentTimeMillis())));
+        verify(repository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void bloomFilterFalsePositiveFallsBackToTheDenylist() {
+        TokenBloomFilter filter = (TokenBloomFilter) ReflectionTestUtils.getField(service, "revokedTokenIds");
+        String falsePositive = null;
+        for (int i = 0; falsePositive == null; i++) {
+            if (filter.mightContain("valid-" + i)) {
+                falsePositive = "valid-" + i;
+            }
+        }
+
+        assertFalse(service.isRevoked(claims(falsePositive, "user-1", System.currentTimeMillis())));
+        verify(repository).existsById(falsePositive);
+    }
+
+    @Test
+    void unknownTokenSkipsTheDenylist() {
+        TokenBloomFilter filter = (TokenBloomFilter) ReflectionTestUtils.getField(service, "revokedTokenIds");
+        String unknown = null;
+        for (int i = 0; unknown == null; i++) {
+            if (!filter.mightContain("valid-" + i)) {
+                unknown = "valid-" + i;
+            }
+        }
+
+        assertFalse(service.isRevoked(claims(unknown, "user-1", System.currentTimeMillis())));
+        verify(repository, never()).existsById(anyString());
+    }
+
+    @Test
+    void revokingAUserRejectsOnlyTokensIssuedBefore() throws InterruptedException {
+        long issuedBefore = System.currentTimeMillis() - 1;
+        service.revokeAllForUser("user-1");
+        Thread.sleep(2);
+        long issuedAfter = System.currentTimeMillis();
+
+        assertTrue(service.isRevoked(claims("token-a", "user-1", issuedBefore)));
+        assertFalse(service.isRevoked(claims("token-b", "user-1", issuedAfter)));
+        assertFalse(service.isRevoked(claims("token-c", "user-2", issuedBefore)));
+    }
+
+    private static Claims claims(String tokenId, String userId, long issuedAtMillis) {
+        return Jwts.claims()
+                .id(tokenId)
+                .add(JwtUtil.CLAIM_USER_ID, userId)
+                .add(JwtUtil.CLAIM_ISSUED_AT_MILLIS, issuedAtMillis)
+                .build();
+    }
+}
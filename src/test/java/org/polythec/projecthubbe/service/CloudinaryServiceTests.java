@@ -0,0 +1,136 @@
+package org.polythec.projecthubbe.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polythec.projecthubbe.dto.UploadTicketDTO;
+import org.polythec.projecthubbe.exception.InvalidUploadException;
+import org.polythec.projecthubbe.repository.CloudinaryUploadResult;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises the direct upload flow against a local stand-in for the storage upload API,
+ * which checks request signatures and signs its responses the way the real one does.
+ */
+class CloudinaryServiceTests {
+
+    private static final String API_KEY = "123456";
+    private static final String API_SECRET = "test-secret";
+    private static final long VERSION = 1700000000L;
+
+    private HttpServer storage;
+    private CloudinaryService cloudinaryService;
+
+    @BeforeEach
+    void startStorage() throws IOException {
+        storage = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        storage.createContext("/upload", exchange -> {
+            Map<String, String> form = parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            String expected = sha1("public_id=" + form.get("public_id") + "&timestamp=" + form.get("timestamp") + API_SECRET);
+            byte[] body;
+            if (!expected.equals(form.get("signature")) || !API_KEY.equals(form.get("api_key")) || form.get("file") == null) {
+                body = "{\"error\":{\"message\":\"Invalid Signature\"}}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(401, body.length);
+            } else {
+                String responseSignature = sha1("public_id=" + form.get("public_id") + "&version=" + VERSION + API_SECRET);
+                body = ("{\"public_id\":\"" + form.get("public_id") + "\",\"version\":" + VERSION
+                        + ",\"signature\":\"" + responseSignature + "\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+            }
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        storage.start();
+
+        String uploadUrl = "http://localhost:" + storage.getAddress().getPort() + "/upload";
+        cloudinaryService = new CloudinaryService("cloudinary://" + API_KEY + ":" + API_SECRET + "@demo",
+                uploadUrl, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void stopStorage() {
+        storage.stop(0);
+    }
+
+    @Test
+    void directUploadIsConfirmedWithStorageSignature() throws Exception {
+        UploadTicketDTO ticket = cloudinaryService.createAvatarUploadTicket("user-1");
+        JsonNode response = upload(ticket);
+
+        CloudinaryUploadResult result = cloudinaryService.confirmAvatarUpload("user-1",
+                response.get("public_id").asText(), response.get("version").asLong(), response.get("signature").asText());
+
+        assertEquals(ticket.getPublicId(), result.getPublicId());
+        assertTrue(result.getSecureUrl().contains("v" + VERSION + "/" + ticket.getPublicId()));
+    }
+
+    @Test
+    void confirmationRejectsForgedSignatureAndOtherUsersUploads() throws Exception {
+        UploadTicketDTO ticket = cloudinaryService.createAvatarUploadTicket("user-1");
+        JsonNode response = upload(ticket);
+        String publicId = response.get("public_id").asText();
+        String signature = response.get("signature").asText();
+
+        assertThrows(InvalidUploadException.class,
+                () -> cloudinaryService.confirmAvatarUpload("user-1", publicId, VERSION + 1, signature));
+        assertThrows(InvalidUploadException.class,
+                () -> cloudinaryService.confirmAvatarUpload("user-2", publicId, VERSION, signature));
+    }
+
+    private JsonNode upload(UploadTicketDTO ticket) throws Exception {
+        String form = "file=" + encode("data:image/png;base64,iVBORw0KGgo=")
+                + "&api_key=" + encode(ticket.getApiKey())
+                + "&timestamp=" + ticket.getTimestamp()
+                + "&public_id=" + encode(ticket.getPublicId())
+                + "&signature=" + encode(ticket.getSignature());
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(ticket.getUploadUrl()))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return new ObjectMapper().readTree(response.body());
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            int eq = pair.indexOf('=');
+            form.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return form;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String sha1(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
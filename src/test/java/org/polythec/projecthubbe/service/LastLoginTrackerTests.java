@@ -0,0 +1,86 @@
+package org.polythec.projecthubbe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LastLoginTrackerTests {
+
+    private JdbcTemplate jdbcTemplate;
+    private LastLoginTracker tracker;
+
+    // Ids bound by each executed flush statement
+    private final List<List<Object>> flushedIds = new ArrayList<>();
+    private int failuresLeft;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        when(connection.createArrayOf(eq("varchar"), any())).thenAnswer(invocation -> {
+            flushedIds.add(List.of((Object[]) invocation.getArgument(1)));
+            return null;
+        });
+
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenAnswer(invocation -> {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new QueryTimeoutException("timeout");
+            }
+            PreparedStatementCreator creator = invocation.getArgument(0);
+            creator.createPreparedStatement(connection);
+            return 1;
+        });
+        tracker = new LastLoginTracker(jdbcTemplate);
+    }
+
+    @Test
+    void coalescesLoginsIntoOneStatement() {
+        tracker.recordLogin("a");
+        tracker.recordLogin("b");
+        tracker.recordLogin("a");
+
+        tracker.flush();
+
+        verify(jdbcTemplate, times(1)).update(any(PreparedStatementCreator.class));
+        assertEquals(1, flushedIds.size());
+        assertEquals(2, flushedIds.get(0).size());
+        assertTrue(flushedIds.get(0).containsAll(List.of("a", "b")));
+    }
+
+    @Test
+    void skipsTheDatabaseWhenNothingIsPending() {
+        tracker.flush();
+        tracker.recordLogin("a");
+        tracker.flush();
+        tracker.flush();
+
+        verify(jdbcTemplate, times(1)).update(any(PreparedStatementCreator.class));
+    }
+
+    @Test
+    void keepsLoginsThatFailedToFlush() {
+        failuresLeft = 1;
+        tracker.recordLogin("a");
+
+        tracker.flush();
+        assertTrue(flushedIds.isEmpty());
+
+        tracker.flush();
+        assertEquals(List.of(List.of("a")), flushedIds);
+    }
+}
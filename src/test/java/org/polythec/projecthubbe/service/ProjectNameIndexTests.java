@@ -0,0 +1,67 @@
+package org.polythec.projecthubbe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polythec.projecthubbe.dto.ProjectSearchHitDTO;
+import org.polythec.projecthubbe.repository.ProjetRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProjectNameIndexTests {
+
+    private static final long[] ALL = {1, 2, 3, 4};
+
+    private ProjectNameIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        ProjetRepository projetRepository = mock(ProjetRepository.class);
+        when(projetRepository.findAllForIndex()).thenReturn(List.of(
+                new NameView(1L, "Alpha Launch"),
+                new NameView(2L, "Budget planning"),
+                new NameView(3L, "Q3 budget review"),
+                new NameView(4L, "Website redesign")
+        ));
+        index = new ProjectNameIndex(projetRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void matchesNamesWithATypo() {
+        List<ProjectSearchHitDTO> hits = index.search("wbsite", ALL, 10);
+
+        assertEquals(List.of(4L), ids(hits));
+        assertEquals(1, hits.get(0).getTypos());
+    }
+
+    @Test
+    void allowsOneTypoFromThreeCharacters() {
+        assertEquals(List.of(1L), ids(index.search("apl", ALL, 10)));
+        assertTrue(index.search("xq", ALL, 10).isEmpty());
+    }
+
+    @Test
+    void ranksPrefixMatchesFirst() {
+        List<ProjectSearchHitDTO> hits = index.search("budg", ALL, 10);
+
+        assertEquals(List.of(2L, 3L), ids(hits));
+        assertEquals(0, hits.get(0).getTypos());
+    }
+
+    @Test
+    void onlyReturnsVisibleProjects() {
+        assertEquals(List.of(3L), ids(index.search("budget", new long[]{1, 3}, 10)));
+        assertTrue(index.search("budget", new long[]{1, 4}, 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<ProjectSearchHitDTO> hits) {
+        return hits.stream().map(ProjectSearchHitDTO::getIdprojet).toList();
+    }
+
+    private record NameView(Long getIdprojet, String getNom) implements ProjetRepository.ProjectNameView {
+    }
+}
@@ -0,0 +1,133 @@
+package org.polythec.projecthubbe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polythec.projecthubbe.dto.MemberAdditionDTO;
+import org.polythec.projecthubbe.dto.MemberBatchResultDTO;
+import org.polythec.projecthubbe.entity.Projet;
+import org.polythec.projecthubbe.exception.PreconditionFailedException;
+import org.polythec.projecthubbe.repository.ProjectMemberRepository;
+import org.polythec.projecthubbe.repository.ProjetRepository;
+import org.polythec.projecthubbe.repository.TaskRepository;
+import org.polythec.projecthubbe.repository.UserRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProjetServiceTests {
+
+    private static final Long PROJECT_ID = 7L;
+
+    private ProjetRepository projetRepository;
+    private ProjectMemberRepository projectMemberRepository;
+    private ProjectSummaryService projectSummaryService;
+    private ProjectMembershipIndex projectMembershipIndex;
+    private JdbcTemplate jdbcTemplate;
+    private ProjetService projetService;
+
+    @BeforeEach
+    void setUp() {
+        projetRepository = mock(ProjetRepository.class);
+        when(projetRepository.findOwnerIdById(PROJECT_ID)).thenReturn(Optional.of("owner"));
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of("new", "raced", "no-info", "member"));
+        projectMemberRepository = mock(ProjectMemberRepository.class);
+        when(projectMemberRepository.findMemberUserIds(eq(PROJECT_ID), anyCollection())).thenReturn(List.of("member"));
+        projectSummaryService = mock(ProjectSummaryService.class);
+        projectMembershipIndex = mock(ProjectMembershipIndex.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+
+        projetService = new ProjetService(projetRepository, userRepository, projectMemberRepository,
+                mock(TaskRepository.class), mock(UserDirectory.class), projectSummaryService,
+                mock(ProjectDeletionService.class), projectMembershipIndex, mock(ProjectNameIndex.class), jdbcTemplate);
+    }
+
+    @Test
+    void reportsOnlyInsertedRowsAsAdded() {
+        // "raced" was added concurrently, so ON CONFLICT DO NOTHING reports no row for it
+        stubInsertCounts(1, 0, Statement.SUCCESS_NO_INFO);
+
+        MemberBatchResultDTO result = projetService.addUsersToProject(PROJECT_ID, List.of(
+                addition("new", "Member"),
+                addition("raced", "Member"),
+                addition("member", "Admin"),
+                addition("no-info", "Viewer"),
+                addition("ghost", "Member"),
+                addition("new", "Admin")
+        ), "owner");
+
+        assertEquals(List.of("new", "no-info"), result.getAdded());
+        assertEquals(List.of("member", "raced"), result.getAlreadyMembers());
+        assertEquals(List.of("ghost"), result.getUnknownUsers());
+        verify(projectMembershipIndex).memberAdded(PROJECT_ID, "new", "Member");
+        verify(projectMembershipIndex).memberAdded(PROJECT_ID, "no-info", "Viewer");
+        verify(projectMembershipIndex, never()).memberAdded(PROJECT_ID, "raced", "Member");
+        verify(projectSummaryService).evict(PROJECT_ID);
+    }
+
+    @Test
+    void leavesCachesAloneWhenNothingWasInserted() {
+        stubInsertCounts(0);
+
+        MemberBatchResultDTO result = projetService.addUsersToProject(PROJECT_ID, List.of(addition("raced", "Member")), "owner");
+
+        assertTrue(result.getAdded().isEmpty());
+        assertEquals(List.of("raced"), result.getAlreadyMembers());
+        verifyNoInteractions(projectMembershipIndex, projectSummaryService);
+    }
+
+    @Test
+    void skipsTheInsertWhenEveryoneIsAlreadyKnown() {
+        MemberBatchResultDTO result = projetService.addUsersToProject(PROJECT_ID,
+                List.of(addition("member", "Member"), addition("ghost", "Member")), "owner");
+
+        assertEquals(List.of("member"), result.getAlreadyMembers());
+        assertEquals(List.of("ghost"), result.getUnknownUsers());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void requiresOwnerOrAdmin() {
+        when(projectMembershipIndex.confirmedRoleOf(PROJECT_ID, "member")).thenReturn(Optional.of("Member"));
+
+        assertThrows(AccessDeniedException.class, () ->
+                projetService.addUsersToProject(PROJECT_ID, List.of(addition("new", "Member")), "member"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void staleExpectedVersionIsRejectedBeforeSaving() {
+        Projet current = new Projet();
+        current.setIdprojet(PROJECT_ID);
+        current.setNom("Current");
+        current.setVersion(4);
+        when(projetRepository.findById(PROJECT_ID)).thenReturn(Optional.of(current));
+        Projet details = new Projet();
+        details.setNom("Renamed");
+
+        assertThrows(PreconditionFailedException.class, () -> projetService.updateProject(PROJECT_ID, details, 3L));
+        verify(projetRepository, never()).saveAndFlush(any());
+        assertEquals("Current", current.getNom());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubInsertCounts(int... counts) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{counts});
+    }
+
+    private static MemberAdditionDTO addition(String userId, String role) {
+        MemberAdditionDTO addition = new MemberAdditionDTO();
+        addition.setUserId(userId);
+        addition.setRole(role);
+        return addition;
+    }
+}
@@ -0,0 +1,81 @@
+package org.polythec.projecthubbe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polythec.projecthubbe.config.CacheConfig;
+import org.polythec.projecthubbe.dto.UserSummaryDTO;
+import org.polythec.projecthubbe.repository.UserRepository;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserDirectoryTests {
+
+    private UserDirectory directory;
+
+    // Size of the IN list of every summary query
+    private final List<Integer> querySizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            querySizes.add(ids.size());
+            return ids.stream()
+                    .filter(id -> !id.startsWith("unknown"))
+                    .map(id -> new UserSummaryDTO(id, "First " + id, "Last " + id, id + "@example.com", null, null))
+                    .toList();
+        });
+        directory = new UserDirectory(userRepository, new ConcurrentMapCacheManager(CacheConfig.USER_SUMMARIES));
+    }
+
+    @Test
+    void loadsMissingIdsInChunksOf500() {
+        List<String> ids = ids(1201);
+
+        Map<String, UserSummaryDTO> users = directory.resolve(ids);
+
+        assertEquals(List.of(500, 500, 201), querySizes);
+        assertEquals(ids, new ArrayList<>(users.keySet()));
+    }
+
+    @Test
+    void onlyQueriesIdsMissingFromTheCache() {
+        directory.resolve(ids(600));
+        querySizes.clear();
+
+        directory.evict("user-3");
+        Map<String, UserSummaryDTO> users = directory.resolve(ids(700));
+
+        assertEquals(List.of(101), querySizes);
+        assertEquals(700, users.size());
+        assertEquals("First user-3", users.get("user-3").getFirstName());
+    }
+
+    @Test
+    void skipsUnknownDuplicateAndNullIds() {
+        Map<String, UserSummaryDTO> users = directory.resolve(Arrays.asList("user-1", null, "unknown-1", "user-1", "user-2"));
+
+        assertEquals(List.of(3), querySizes);
+        assertEquals(List.of("user-1", "user-2"), new ArrayList<>(users.keySet()));
+        assertNull(directory.get("unknown-2"));
+    }
+
+    private static List<String> ids(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add("user-" + i);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,97 @@
+package org.polythec.projecthubbe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.polythec.projecthubbe.dto.UserSummaryDTO;
+import org.polythec.projecthubbe.entity.User;
+import org.polythec.projecthubbe.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserPrefixIndexTests {
+
+    private UserPrefixIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAllForIndex()).thenReturn(List.of(
+                new IndexView("u1", "Ada", "Lovelace", "ada@example.com"),
+                new IndexView("u2", "Adam", "Smith", "adam@example.com"),
+                new IndexView("u3", "Grace", "Hopper", "grace@example.com")
+        ));
+        index = new UserPrefixIndex(userRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void completesNamesFullNamesAndEmails() {
+        assertEquals(List.of("u1", "u2"), ids(index.complete("ada", 10)));
+        assertEquals(List.of("u3"), ids(index.complete("HOP", 10)));
+        assertEquals(List.of("u1"), ids(index.complete("ada  lov", 10)));
+        assertEquals(List.of("u2"), ids(index.complete("adam@", 10)));
+        assertTrue(index.complete("adz", 10).isEmpty());
+        assertTrue(index.complete(" ", 10).isEmpty());
+    }
+
+    @Test
+    void ranksShorterKeysFirstAndStopsAtTheLimit() {
+        assertEquals(List.of("u1"), ids(index.complete("a", 1)));
+        assertEquals(List.of("u1", "u2"), ids(index.complete("a", 2)));
+    }
+
+    @Test
+    void putReplacesThePreviousKeys() {
+        index.put(user("u1", "Augusta", "King", "ada@example.com"));
+
+        assertEquals(List.of("u1"), ids(index.complete("augusta k", 10)));
+        assertTrue(index.complete("lovelace", 10).isEmpty());
+        // The email did not change, so the user is still found through it, after the shorter "adam"
+        assertEquals(List.of("u2", "u1"), ids(index.complete("ada", 10)));
+        assertEquals("Augusta", index.complete("king", 10).get(0).getFirstName());
+    }
+
+    @Test
+    void putAddsNewUsers() {
+        index.put(user("u4", "Alan", "Turing", "alan@example.com"));
+
+        assertEquals(List.of("u4"), ids(index.complete("al", 10)));
+        assertEquals(List.of("u4"), ids(index.complete("turing", 10)));
+    }
+
+    @Test
+    void removeDropsEveryKeyOfTheUser() {
+        index.remove("u1");
+
+        assertEquals(List.of("u2"), ids(index.complete("ada", 10)));
+        assertTrue(index.complete("lovelace", 10).isEmpty());
+        assertTrue(index.complete("ada@", 10).isEmpty());
+
+        index.remove("u2");
+        index.remove("missing");
+
+        assertTrue(index.complete("ada", 10).isEmpty());
+        assertEquals(List.of("u3"), ids(index.complete("g", 10)));
+    }
+
+    private static User user(String id, String firstName, String lastName, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        return user;
+    }
+
+    private static List<String> ids(List<UserSummaryDTO> users) {
+        return users.stream().map(UserSummaryDTO::getId).toList();
+    }
+
+    private record IndexView(String getId, String getFirstName, String getLastName, String getEmail)
+            implements UserRepository.UserIndexView {
+    }
+}
@@ -0,0 +1,56 @@
+package org.polythec.projecthubbe.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageTypesTests {
+
+    @Test
+    void detectsAcceptedImageSignatures() {
+        assertEquals(ImageTypes.PNG, ImageTypes.detect(bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D)));
+        assertEquals(ImageTypes.JPEG, ImageTypes.detect(bytes(0xFF, 0xD8, 0xFF, 0xE0)));
+        assertEquals(ImageTypes.GIF, ImageTypes.detect("GIF87a".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(ImageTypes.GIF, ImageTypes.detect("GIF89a....".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(ImageTypes.WEBP, ImageTypes.detect(bytes('R', 'I', 'F', 'F', 0x24, 0, 0, 0, 'W', 'E', 'B', 'P')));
+    }
+
+    @Test
+    void rejectsEverythingElse() {
+        assertNull(ImageTypes.detect("<html><body>".getBytes(StandardCharsets.US_ASCII)));
+        assertNull(ImageTypes.detect(bytes('R', 'I', 'F', 'F', 0x24, 0, 0, 0, 'W', 'A', 'V', 'E')));
+        assertNull(ImageTypes.detect(bytes(0x89, 'P', 'N', 'G')));
+        assertNull(ImageTypes.detect(new byte[0]));
+    }
+
+    @Test
+    void detectsFromTheFileHeader(@TempDir Path dir) throws IOException {
+        Path png = Files.write(dir.resolve("claimed.html"), bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D, 'I', 'H'));
+        Path text = Files.writeString(dir.resolve("image.png"), "not an image");
+
+        assertEquals(Optional.of(ImageTypes.PNG), ImageTypes.detect(png));
+        assertEquals(Optional.empty(), ImageTypes.detect(text));
+    }
+
+    @Test
+    void allowsOnlyImageContentTypes() {
+        assertTrue(ImageTypes.isAllowed("image/webp"));
+        assertFalse(ImageTypes.isAllowed("text/html"));
+        assertFalse(ImageTypes.isAllowed(null));
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
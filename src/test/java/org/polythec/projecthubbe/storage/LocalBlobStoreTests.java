@@ -0,0 +1,123 @@
+package org.polythec.projecthubbe.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalBlobStoreTests {
+
+    private static final String KEY = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    @TempDir
+    Path dir;
+
+    private Path root;
+    private LocalBlobStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = dir.resolve("blobs");
+        store = new LocalBlobStore(root.toString(), "http://localhost", 1_000_000);
+    }
+
+    @Test
+    void acceptsOnlyContentHashKeys() {
+        assertTrue(LocalBlobStore.isValidKey(KEY));
+        assertTrue(LocalBlobStore.isValidKey(KEY + "-256"));
+
+        assertFalse(LocalBlobStore.isValidKey(null));
+        assertFalse(LocalBlobStore.isValidKey(""));
+        assertFalse(LocalBlobStore.isValidKey(KEY.substring(1)));
+        assertFalse(LocalBlobStore.isValidKey(KEY.toUpperCase()));
+        assertFalse(LocalBlobStore.isValidKey(KEY + "-12345"));
+        assertFalse(LocalBlobStore.isValidKey(KEY + ".type"));
+        assertFalse(LocalBlobStore.isValidKey(KEY + "\n"));
+        assertFalse(LocalBlobStore.isValidKey("../../" + KEY.substring(6)));
+        assertFalse(LocalBlobStore.isValidKey("../secret"));
+    }
+
+    @Test
+    void neverResolvesOrDeletesOutsideTheRoot() throws IOException {
+        Path secret = Files.writeString(dir.resolve("secret"), "keep me");
+
+        assertTrue(store.resolve("../secret").isEmpty());
+        store.delete("../secret");
+        store.delete("../../" + dir.getFileName() + "/secret");
+
+        assertTrue(Files.exists(secret));
+    }
+
+    @Test
+    void storesIdenticalContentOnce() throws Exception {
+        Path first = png("first.png", 0xFF0000);
+        Path copy = Files.copy(first, dir.resolve("copy.bin"));
+
+        StoredBlob stored = store.store(first, "image/png");
+        StoredBlob again = store.store(copy, "text/html");
+
+        assertEquals(sha256(first), stored.getKey());
+        assertEquals(stored.getKey(), again.getKey());
+        assertEquals("http://localhost/api/blobs/" + stored.getKey(), stored.getUrl());
+        assertEquals(List.of(stored.getKey(), stored.getKey() + ".type"), storedFiles());
+        assertEquals(ImageTypes.PNG, store.contentType(stored.getKey()));
+    }
+
+    @Test
+    void rejectsContentThatIsNotAnImage() throws IOException {
+        Path html = Files.writeString(dir.resolve("avatar.png"), "<html><script>alert(1)</script></html>");
+
+        assertThrows(IOException.class, () -> store.store(html, "image/png"));
+        assertTrue(storedFiles().isEmpty());
+    }
+
+    @Test
+    void createsDerivativesNextToTheOriginal() throws IOException {
+        StoredBlob stored = store.store(png("large.png", 0x00FF00), "image/png");
+
+        String url = store.createDerivative(stored.getKey(), 16);
+
+        String derivativeKey = stored.getKey() + "-16";
+        assertEquals("http://localhost/api/blobs/" + derivativeKey, url);
+        BufferedImage thumbnail = ImageIO.read(store.resolve(derivativeKey).orElseThrow().toFile());
+        assertEquals(16, thumbnail.getWidth());
+        assertEquals(16, thumbnail.getHeight());
+        assertEquals(ImageTypes.PNG, store.contentType(derivativeKey));
+    }
+
+    private Path png(String name, int rgb) throws IOException {
+        BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        Path file = dir.resolve(name);
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+
+    private List<String> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .map(path -> path.getFileName().toString())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String sha256(Path file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file)));
+    }
+}